@@ -0,0 +1,69 @@
+package org.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.data.BulkLoader;
+
+final class BenchmarkData {
+
+  static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JARK"};
+
+  /**
+   * A calendar with a rule of its own on top of the rules every calendar shares.
+   */
+  static final String NAMED_CALENDAR = "US-MA";
+
+  private static boolean seeded;
+
+  private BenchmarkData() {
+
+  }
+
+  static synchronized void seed() {
+    if (seeded) {
+      return;
+    }
+
+    BulkLoader loader = new BulkLoader();
+    load(loader, BulkLoader.Kind.CHARGES, "charges-test-data.txt");
+    load(loader, BulkLoader.Kind.TOOLS, "tool-test-data.txt");
+    load(loader, BulkLoader.Kind.HOLIDAYS, "holiday-test-data.txt");
+    load(loader, BulkLoader.Kind.HOLIDAYS, new StringReader(
+        "Patriots' Day,false,APRIL,0,false,true,MONDAY,3," + NAMED_CALENDAR + "\n"),
+        "named-calendar holidays");
+
+    seeded = true;
+  }
+
+  static LocalDate[] randomDates(int count, int fromYear, int toYear, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    long first = LocalDate.of(fromYear, 1, 1).toEpochDay();
+    long last = LocalDate.of(toYear + 1, 1, 1).toEpochDay();
+
+    LocalDate[] dates = new LocalDate[count];
+    for (int i = 0; i < count; i++) {
+      dates[i] = LocalDate.ofEpochDay(random.nextLong(first, last));
+    }
+    return dates;
+  }
+
+  private static void load(BulkLoader loader, BulkLoader.Kind kind, String resource) {
+    InputStream inputStream = BenchmarkData.class.getClassLoader().getResourceAsStream(resource);
+    load(loader, kind, new InputStreamReader(inputStream), resource);
+  }
+
+  private static void load(BulkLoader loader, BulkLoader.Kind kind, Reader reader,
+      String source) {
+    try {
+      loader.load(kind, reader, source);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
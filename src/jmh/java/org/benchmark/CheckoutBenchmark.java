@@ -0,0 +1,141 @@
+package org.benchmark;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.data.HolidayCalendar;
+import org.data.ToolCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rental.AgreementRenderer;
+import org.rental.QuoteEngine;
+import org.rental.RateSnapshot;
+import org.rental.RentalAgreement;
+import org.rental.RentalTransaction;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+
+  @Param({"3", "365"})
+  int days;
+
+  LocalDate[] dates;
+  int next;
+  RateSnapshot[] rates;
+  ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BenchmarkData.seed();
+    dates = BenchmarkData.randomDates(1024, 2000, 2030, 11);
+    HolidayCalendar.getDefault().preloadYears(2000, 2031);
+    rates = new RateSnapshot[BenchmarkData.TOOL_CODES.length];
+    for (int i = 0; i < rates.length; i++) {
+      rates[i] = RateSnapshot.of(ToolCatalog.current().getTool(BenchmarkData.TOOL_CODES[i])
+          .getType());
+    }
+  }
+
+  @Benchmark
+  public BigDecimal checkout() {
+    int i = next++;
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout(BenchmarkData.TOOL_CODES[i & 3], days, i % 101,
+        dates[i & (dates.length - 1)]);
+    return transaction.getRentalAgreement().getTotal();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public BigDecimal checkoutContended(Cursor cursor) {
+    int i = cursor.next++;
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout(BenchmarkData.TOOL_CODES[i & 3], days, i % 101,
+        dates[i & (dates.length - 1)]);
+    return transaction.getRentalAgreement().getTotal();
+  }
+
+  /**
+   * Each thread rents its own tool for back to back periods, so every reservation succeeds and
+   * the threads only meet in the rental writer.
+   */
+  @Benchmark
+  @Threads(4)
+  public long checkoutAndStoreContended(Lane lane) {
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout(lane.toolCode, days, lane.next % 101, lane.nextDate);
+    transaction.Store();
+    lane.next++;
+    lane.nextDate = lane.nextDate.plusDays(days);
+    return transaction.getOrder().getRentalId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long quoteRepeatedContended(Cursor cursor) {
+    // Website price checks repeat a small set of inputs, so these are served by the quote cache.
+    int i = cursor.next++;
+    return QuoteEngine.getDefault().quote(rates[i & 3], days, (i >>> 2) % 5 * 5,
+        dates[(i >>> 4) & 15]).getTotalCents();
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    int next;
+  }
+
+  @State(Scope.Thread)
+  public static class Lane {
+
+    private static final AtomicInteger LANES = new AtomicInteger();
+
+    String toolCode;
+    LocalDate nextDate = LocalDate.of(2040, 1, 1);
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      toolCode = BenchmarkData.TOOL_CODES[LANES.getAndIncrement() & 3];
+    }
+  }
+
+  @Benchmark
+  public String checkoutAndRender() {
+    int i = next++;
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout(BenchmarkData.TOOL_CODES[i & 3], days, i % 101,
+        dates[i & (dates.length - 1)]);
+    RentalAgreement agreement = transaction.getRentalAgreement();
+    return agreement.toString();
+  }
+
+  @Benchmark
+  public int checkoutAndRenderToBuffer() {
+    int i = next++;
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout(BenchmarkData.TOOL_CODES[i & 3], days, i % 101,
+        dates[i & (dates.length - 1)]);
+    buffer.clear();
+    AgreementRenderer.getDefault().render(transaction.getRentalAgreement(), buffer);
+    return buffer.position();
+  }
+}
@@ -0,0 +1,140 @@
+package org.benchmark;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.data.Holiday;
+import org.data.HolidayCalendar;
+import org.data.HolidayIndex;
+import org.hibernate.HibernateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HolidayBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Calendar {
+
+    LocalDate[] dates;
+    List<Holiday> rules;
+    HolidayCalendar namedCalendar;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      BenchmarkData.seed();
+      dates = BenchmarkData.randomDates(4096, 1990, 2040, 42);
+      rules = HibernateUtil.getSession()
+          .createQuery("SELECT h FROM Holiday h", Holiday.class).getResultList();
+      namedCalendar = HolidayCalendar.forName(BenchmarkData.NAMED_CALENDAR);
+      for (LocalDate date : dates) {
+        Holiday.isAHoliday(date);
+        namedCalendar.isHoliday(date);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    int next;
+
+    LocalDate nextDate(Calendar calendar) {
+      return calendar.dates[next++ & (calendar.dates.length - 1)];
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class ColdCalendar extends Calendar {
+
+    @Setup(Level.Invocation)
+    public void invalidate() {
+      HolidayCalendar.getDefault().invalidate();
+    }
+  }
+
+  @Benchmark
+  public boolean isAHolidayWarm(Calendar calendar, Cursor cursor) {
+    return Holiday.isAHoliday(cursor.nextDate(calendar));
+  }
+
+  @Benchmark
+  public boolean isHolidayNamedCalendarWarm(Calendar calendar, Cursor cursor) {
+    return calendar.namedCalendar.isHoliday(cursor.nextDate(calendar));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean isAHolidayWarmContended(Calendar calendar, Cursor cursor) {
+    return Holiday.isAHoliday(cursor.nextDate(calendar));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Measurement(iterations = 200, batchSize = 1)
+  @Warmup(iterations = 20, batchSize = 1)
+  public boolean isAHolidayCold(ColdCalendar calendar, Cursor cursor) {
+    return Holiday.isAHoliday(cursor.nextDate(calendar));
+  }
+
+  /**
+   * Lists the holidays of a 90 day leasing window, which a caller without the range API finds by
+   * probing each day.
+   */
+  @Benchmark
+  public HolidayIndex holidaysBetweenQuarterWarm(Calendar calendar, Cursor cursor) {
+    LocalDate start = cursor.nextDate(calendar);
+    return Holiday.holidaysBetween(start, start.plusDays(90));
+  }
+
+  @Benchmark
+  public int isAHolidayQuarterWarm(Calendar calendar, Cursor cursor) {
+    LocalDate start = cursor.nextDate(calendar);
+    int holidays = 0;
+    for (LocalDate day = start; day.isBefore(start.plusDays(90)); day = day.plusDays(1)) {
+      if (Holiday.isAHoliday(day)) {
+        holidays++;
+      }
+    }
+    return holidays;
+  }
+
+  @Benchmark
+  public LocalDate getHolidayWarm(Calendar calendar, Cursor cursor) {
+    Holiday rule = calendar.rules.get(cursor.next++ % calendar.rules.size());
+    return rule.getHoliday(Year.of(2000 + (cursor.next & 31)));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public LocalDate getHolidayWarmContended(Calendar calendar, Cursor cursor) {
+    Holiday rule = calendar.rules.get(cursor.next++ % calendar.rules.size());
+    return rule.getHoliday(Year.of(2000 + (cursor.next & 31)));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Measurement(iterations = 200, batchSize = 1)
+  @Warmup(iterations = 20, batchSize = 1)
+  public LocalDate getHolidayCold(ColdCalendar calendar, Cursor cursor) {
+    Holiday rule = calendar.rules.get(cursor.next++ % calendar.rules.size());
+    return rule.getHoliday(Year.of(2000 + (cursor.next & 31)));
+  }
+}
@@ -0,0 +1,71 @@
+package org.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.data.HolidayCalendar;
+import org.data.Rental;
+import org.data.Tool;
+import org.hibernate.HibernateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rental.RentalAgreement;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalAgreementBenchmark {
+
+  @Param({"3", "30", "365", "3650"})
+  int days;
+
+  Tool[] tools;
+  LocalDate[] dates;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BenchmarkData.seed();
+    tools = new Tool[BenchmarkData.TOOL_CODES.length];
+    for (int i = 0; i < tools.length; i++) {
+      tools[i] = HibernateUtil.getSession().get(Tool.class, BenchmarkData.TOOL_CODES[i]);
+    }
+    dates = BenchmarkData.randomDates(1024, 2000, 2030, 7);
+    HolidayCalendar.getDefault().preloadYears(2000, 2041);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    int next;
+  }
+
+  private int chargeDays(LocalDate date, Tool tool) {
+    return new RentalAgreement(new Rental(tool, days, 10, date)).getChargeDays();
+  }
+
+  @Benchmark
+  public int calculateChargeDays(Cursor cursor) {
+    int i = cursor.next++;
+    return chargeDays(dates[i & (dates.length - 1)], tools[i & (tools.length - 1)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int calculateChargeDaysContended(Cursor cursor) {
+    int i = cursor.next++;
+    return chargeDays(dates[i & (dates.length - 1)], tools[i & (tools.length - 1)]);
+  }
+}
@@ -0,0 +1,75 @@
+package org.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.data.Brand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rental.RevenueStore;
+
+/**
+ * Dashboard queries over ten years of synthetic rentals held in a {@link RevenueStore}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RevenueBenchmark {
+
+  private static final String[] TOOL_TYPES = {"Chainsaw", "Jackhammer", "Ladder"};
+
+  @Param({"1000000"})
+  int rentals;
+
+  RevenueStore store;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    LocalDate[] dates = BenchmarkData.randomDates(rentals, 2014, 2023, 42);
+    Brand[] brands = Brand.values();
+    RevenueStore.Builder builder = new RevenueStore.Builder();
+    for (LocalDate date : dates) {
+      int chargeDays = random.nextInt(1, 30);
+      int discount = random.nextInt(0, 4) * 10;
+      long preDiscount = chargeDays * 199L;
+      long discountCents = preDiscount * discount / 100;
+      builder.add(TOOL_TYPES[random.nextInt(TOOL_TYPES.length)],
+          brands[random.nextInt(brands.length)], date, chargeDays, discount, discountCents,
+          preDiscount - discountCents);
+    }
+    store = builder.build();
+  }
+
+  @Benchmark
+  public List<RevenueStore.Revenue> revenueByToolTypeAndWeekForAYear() {
+    return store.revenue(LocalDate.of(2022, 1, 1), LocalDate.of(2023, 1, 1), null, null,
+        RevenueStore.GroupBy.TOOL_TYPE, RevenueStore.GroupBy.WEEK);
+  }
+
+  @Benchmark
+  public List<RevenueStore.Revenue> revenueByBrandAcrossAllYears() {
+    return store.revenue(LocalDate.of(2014, 1, 1), LocalDate.of(2024, 1, 1), null, null,
+        RevenueStore.GroupBy.BRAND);
+  }
+
+  @Benchmark
+  public List<RevenueStore.Revenue> ladderRevenueByWeekAcrossAllYears() {
+    return store.revenue(LocalDate.of(2014, 1, 1), LocalDate.of(2024, 1, 1), "Ladder", null,
+        RevenueStore.GroupBy.WEEK);
+  }
+}
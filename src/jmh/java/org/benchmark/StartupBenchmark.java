@@ -0,0 +1,84 @@
+package org.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rental.RentalTransaction;
+import org.service.Startup;
+
+/**
+ * Startup costs, each measured once in a fresh JVM. Run with
+ * {@code -Djmh.args="StartupBenchmark -jvmArgsAppend -XX:SharedArchiveFile=target/checkout.jsa"}
+ * to compare against a class data sharing archive.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+  private static final LocalDate CHECKOUT_DATE = LocalDate.of(2023, 7, 2);
+
+  @State(Scope.Benchmark)
+  public static class Seeded {
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      BenchmarkData.seed();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Started {
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      BenchmarkData.seed();
+      Startup.preload();
+    }
+  }
+
+  private static BigDecimal checkout() {
+    RentalTransaction transaction = new RentalTransaction();
+    transaction.Checkout("LADW", 3, 10, CHECKOUT_DATE);
+    return transaction.getRentalAgreement().getTotal();
+  }
+
+  /**
+   * Bootstrap, seeding the reference data and the first checkout, from a cold JVM.
+   */
+  @Benchmark
+  public BigDecimal timeToFirstCheckout() {
+    Startup.begin().join();
+    BenchmarkData.seed();
+    return checkout();
+  }
+
+  /**
+   * The first checkout once the session factory exists but nothing has been warmed up.
+   */
+  @Benchmark
+  public BigDecimal firstCheckoutCold(Seeded seeded) {
+    return checkout();
+  }
+
+  /**
+   * The first checkout after the startup preload, which is what the first customer pays.
+   */
+  @Benchmark
+  public BigDecimal firstCheckoutAfterStartup(Started started) {
+    return checkout();
+  }
+}
@@ -0,0 +1,78 @@
+package org.data;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, direct-mapped cache from primitive {@code long} keys to values. Every key maps to
+ * exactly one slot and a put into an occupied slot evicts the previous entry, so the footprint is
+ * bounded by the capacity no matter how many keys pass through. Reads and writes are lock-free.
+ *
+ * <p>Keys that differ only in their low 32 bits, such as consecutive years, land in consecutive
+ * slots: any window of {@code capacity} consecutive values is held without collisions.
+ */
+public final class BoundedLongCache<V> {
+
+  private final int mask;
+  private volatile AtomicReferenceArray<Entry<V>> slots;
+
+  public BoundedLongCache(int capacity) {
+    int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<>(size);
+  }
+
+  /**
+   * Creates a cache sized by the given system property, or by {@code defaultCapacity} when the
+   * property is not set.
+   */
+  public static <V> BoundedLongCache<V> fromProperty(String property, int defaultCapacity) {
+    return new BoundedLongCache<>(Integer.getInteger(property, defaultCapacity));
+  }
+
+  public V get(long key) {
+    Entry<V> entry = slots.get(index(key));
+    return entry != null && entry.key == key ? entry.value : null;
+  }
+
+  public void put(long key, V value) {
+    slots.set(index(key), new Entry<>(key, value));
+  }
+
+  public void clear() {
+    slots = new AtomicReferenceArray<>(mask + 1);
+  }
+
+  /**
+   * Counts the occupied slots. This walks every slot, so it is meant for monitoring rather than
+   * for the lookup path.
+   */
+  public int size() {
+    AtomicReferenceArray<Entry<V>> current = slots;
+    int size = 0;
+    for (int i = 0; i < current.length(); i++) {
+      if (current.get(i) != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  private int index(long key) {
+    return ((int) key + (int) (key >>> 32) * 0x9E3779B9) & mask;
+  }
+
+  private static final class Entry<V> {
+
+    private final long key;
+    private final V value;
+
+    private Entry(long key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,376 @@
+package org.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.hibernate.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Streams the comma separated holiday, tool, charges and rental files into the database. Each line
+ * is validated on its own and rejected lines are reported without stopping the load; the first
+ * {@link #MAX_REPORTED_REJECTS} are kept with their reasons and the rest are only counted. Rows are
+ * inserted in JDBC batches; the session is flushed and cleared after every batch so memory stays
+ * flat, and the transaction is committed every {@code commitInterval} rows.
+ *
+ * <p>Tools reference charges and rentals reference tools, so load charges before tools and tools
+ * before rentals. {@link #main} does this regardless of the order of its arguments. Loaded rentals
+ * are added to the {@link ToolAvailability} index as each transaction commits, so a running
+ * service refuses checkouts that overlap them.
+ */
+public class BulkLoader {
+
+  public static final int DEFAULT_BATCH_SIZE = 50;
+  public static final int DEFAULT_COMMIT_INTERVAL = 10_000;
+  public static final int MAX_REPORTED_REJECTS = 1_000;
+
+  public enum Kind {
+    CHARGES(5, 5),
+    TOOLS(3, 3),
+    HOLIDAYS(8, 9),
+    RENTALS(4, 4);
+
+    private final int fieldCount;
+    private final int maxFieldCount;
+
+    Kind(int fieldCount, int maxFieldCount) {
+      this.fieldCount = fieldCount;
+      this.maxFieldCount = maxFieldCount;
+    }
+
+    public static Kind fromString(String name) {
+      for (Kind kind : values()) {
+        if (kind.name().equalsIgnoreCase(name)) {
+          return kind;
+        }
+      }
+      throw new IllegalArgumentException("The String " + name + " is not a known data kind");
+    }
+  }
+
+  public static class Result {
+
+    private final Kind kind;
+    private final long rows;
+    private final Rejects rejects;
+    private final long elapsedNanos;
+
+    private Result(Kind kind, long rows, Rejects rejects, long elapsedNanos) {
+      this.kind = kind;
+      this.rows = rows;
+      this.rejects = rejects;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns the first {@link #MAX_REPORTED_REJECTS} rejected lines with their reasons.
+     */
+    public List<String> getRejects() {
+      return rejects.reported;
+    }
+
+    public long getRejectCount() {
+      return rejects.count;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+      return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Loaded %d %s rows (%d rejected) in %d ms, %.0f rows/s",
+          rows, kind.name().toLowerCase(), rejects.count, elapsedNanos / 1_000_000,
+          getRowsPerSecond());
+    }
+  }
+
+  private static final class Rejects {
+
+    private final List<String> reported = new ArrayList<>();
+    private long count;
+
+    private void add(String source, int lineNumber, String reason) {
+      if (reported.size() < MAX_REPORTED_REJECTS) {
+        reported.add(source + ":" + lineNumber + ": " + reason);
+      }
+      count++;
+    }
+  }
+
+  private final int batchSize;
+  private final int commitInterval;
+
+  public BulkLoader() {
+    this(DEFAULT_BATCH_SIZE, DEFAULT_COMMIT_INTERVAL);
+  }
+
+  public BulkLoader(int batchSize, int commitInterval) {
+    this.batchSize = batchSize;
+    this.commitInterval = commitInterval;
+  }
+
+  public Result load(Kind kind, Path file) throws IOException {
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return load(kind, reader, file.toString());
+    }
+  }
+
+  public Result load(Kind kind, Reader reader, String source) throws IOException {
+    long start = System.nanoTime();
+    Rejects rejects = new Rejects();
+    long rows = HibernateUtil.inNewSession(session -> {
+      try {
+        return load(session, kind, new BufferedReader(reader), source, rejects);
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    Result result = new Result(kind, rows, rejects, System.nanoTime() - start);
+
+    if (kind == Kind.CHARGES || kind == Kind.TOOLS) {
+      ToolCatalog.reload();
+    } else if (kind == Kind.HOLIDAYS) {
+      HolidayCalendar.getDefault().invalidate();
+    }
+    return result;
+  }
+
+  private long load(Session session, Kind kind, BufferedReader reader, String source,
+      Rejects rejects) throws IOException {
+    Set<String> chargeTypes = new HashSet<>(session.createQuery(
+        "SELECT c.toolType FROM Charges c", String.class).getResultList());
+    Set<String> toolCodes = new HashSet<>(session.createQuery(
+        "SELECT t.code FROM Tool t", String.class).getResultList());
+
+    long rows = 0;
+    int lineNumber = 0;
+    List<Rental> uncommittedRentals = new ArrayList<>();
+    Transaction transaction = session.beginTransaction();
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+
+        Object row;
+        try {
+          row = parse(session, kind, line.split(",", -1), chargeTypes, toolCodes);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+          rejects.add(source, lineNumber, ex.getMessage());
+          continue;
+        }
+
+        session.persist(row);
+        if (row instanceof Rental) {
+          uncommittedRentals.add((Rental) row);
+        }
+        rows++;
+        if (rows % batchSize == 0) {
+          session.flush();
+          session.clear();
+        }
+        if (rows % commitInterval == 0) {
+          transaction.commit();
+          reserveStored(uncommittedRentals);
+          transaction = session.beginTransaction();
+        }
+      }
+      transaction.commit();
+      reserveStored(uncommittedRentals);
+    } catch (RuntimeException ex) {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      throw ex;
+    }
+
+    return rows;
+  }
+
+  private static void reserveStored(List<Rental> rentals) {
+    // An index that is not built yet reads these rentals from the table when it is.
+    ToolAvailability availability = ToolAvailability.getDefaultIfBuilt();
+    if (availability != null) {
+      for (Rental rental : rentals) {
+        availability.addStored(rental.getTool().getCode(), rental.getCheckoutDate(),
+            rental.getCheckoutDate().plusDays(rental.getDays()));
+      }
+    }
+    rentals.clear();
+  }
+
+  private static Object parse(Session session, Kind kind, String[] fields,
+      Set<String> chargeTypes, Set<String> toolCodes) {
+    if (fields.length < kind.fieldCount || fields.length > kind.maxFieldCount) {
+      throw new IllegalArgumentException("Expected " + kind.fieldCount + " fields but found "
+          + fields.length);
+    }
+
+    switch (kind) {
+      case CHARGES:
+        return parseCharges(fields, chargeTypes);
+      case TOOLS:
+        return parseTool(session, fields, chargeTypes, toolCodes);
+      case HOLIDAYS:
+        return parseHoliday(fields);
+      default:
+        return parseRental(session, fields, toolCodes);
+    }
+  }
+
+  private static Charges parseCharges(String[] fields, Set<String> chargeTypes) {
+    String toolType = required(fields[0], "tool type");
+    BigDecimal dailyRate = new BigDecimal(fields[1]);
+    if (dailyRate.signum() < 0 || dailyRate.scale() > 2) {
+      throw new IllegalArgumentException("The daily charge " + fields[1]
+          + " is required to be a non-negative amount in cents");
+    }
+    if (!chargeTypes.add(toolType)) {
+      throw new IllegalArgumentException("Duplicate tool type " + toolType);
+    }
+
+    return new Charges(toolType, dailyRate, parseBoolean(fields[2]), parseBoolean(fields[3]),
+        parseBoolean(fields[4]));
+  }
+
+  private static Tool parseTool(Session session, String[] fields, Set<String> chargeTypes,
+      Set<String> toolCodes) {
+    String code = required(fields[0], "tool code");
+    String toolType = required(fields[1], "tool type");
+    Brand brand = Brand.getBrandFromString(fields[2]);
+    if (!chargeTypes.contains(toolType)) {
+      throw new IllegalArgumentException("Unknown tool type " + toolType);
+    }
+    if (!toolCodes.add(code)) {
+      throw new IllegalArgumentException("Duplicate tool code " + code);
+    }
+
+    return new Tool(code, session.getReference(Charges.class, toolType), brand);
+  }
+
+  private static Holiday parseHoliday(String[] fields) {
+    String name = required(fields[0], "holiday name");
+    boolean isFixedDate = parseBoolean(fields[1]);
+    Month month = Month.valueOf(fields[2]);
+    int dayOfMonth = Integer.parseInt(fields[3]);
+    boolean followsWeekendObserv = parseBoolean(fields[4]);
+    boolean followsPatternObserv = parseBoolean(fields[5]);
+    DayOfWeek dayOfWeek = fields[6].equals("null") ? null : DayOfWeek.valueOf(fields[6]);
+    int weekNum = Integer.parseInt(fields[7]);
+
+    if (isFixedDate && (dayOfMonth < 1 || dayOfMonth > month.maxLength())) {
+      throw new IllegalArgumentException("Day " + dayOfMonth + " is not in " + month);
+    }
+    if (followsPatternObserv && (dayOfWeek == null || weekNum < 1 || weekNum > 5)) {
+      throw new IllegalArgumentException(
+          "A pattern holiday requires a day of the week and a week number from 1 to 5");
+    }
+
+    Holiday holiday = new Holiday(name, isFixedDate, month, dayOfMonth, followsWeekendObserv,
+        followsPatternObserv, dayOfWeek, weekNum);
+    // The optional ninth field limits the rule to the listed calendars, separated by semicolons.
+    if (fields.length > 8 && !fields[8].isBlank()) {
+      holiday.setCalendars(new HashSet<>(Arrays.asList(fields[8].split(";"))));
+    }
+    return holiday;
+  }
+
+  private static Rental parseRental(Session session, String[] fields, Set<String> toolCodes) {
+    String code = required(fields[0], "tool code");
+    int days = Integer.parseInt(fields[1]);
+    int discount = Integer.parseInt(fields[2]);
+    LocalDate checkoutDate = LocalDate.parse(fields[3]);
+
+    if (!toolCodes.contains(code)) {
+      throw new IllegalArgumentException("Unknown tool code " + code);
+    }
+    if (days < 1) {
+      throw new IllegalArgumentException("The number of rental days is " + days
+          + ". It is required to be greater than or equal to 1");
+    }
+    if (discount < 0 || discount > 100) {
+      throw new IllegalArgumentException("Discount percentage is: " + discount
+          + ". It should be in the range 0-100 inclusive");
+    }
+
+    return new Rental(session.getReference(Tool.class, code), days, discount, checkoutDate);
+  }
+
+  private static String required(String value, String field) {
+    if (value.isBlank()) {
+      throw new IllegalArgumentException("Missing " + field);
+    }
+    return value;
+  }
+
+  private static boolean parseBoolean(String value) {
+    if (value.equals("true")) {
+      return true;
+    } else if (value.equals("false")) {
+      return false;
+    }
+    throw new IllegalArgumentException("The String " + value + " is not true or false");
+  }
+
+  /**
+   * Loads each {@code kind=file} argument, for example
+   * {@code charges=charges.txt tools=tools.txt rentals=rentals.txt}, and prints the row counts,
+   * rates and rejected lines.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<Kind, Path> files = new TreeMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected kind=file but found " + arg);
+      }
+      files.put(Kind.fromString(arg.substring(0, separator)),
+          Paths.get(arg.substring(separator + 1)));
+    }
+
+    BulkLoader loader = new BulkLoader();
+    for (Map.Entry<Kind, Path> file : files.entrySet()) {
+      Result result = loader.load(file.getKey(), file.getValue());
+      for (String reject : result.getRejects()) {
+        System.err.println("Rejected " + reject);
+      }
+      if (result.getRejectCount() > result.getRejects().size()) {
+        System.err.println("Rejected " + (result.getRejectCount() - result.getRejects().size())
+            + " more lines");
+      }
+      System.out.println(result);
+    }
+  }
+}
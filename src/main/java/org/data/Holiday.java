@@ -1,33 +1,44 @@
 package org.data;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Year;
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import org.hibernate.HibernateException;
-import org.hibernate.HibernateUtil;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "holiday")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "holiday")
 public class Holiday {
 
-  protected static final ConcurrentHashMap<String, LocalDate> holidayDateCache = new ConcurrentHashMap<>();
-  static final ConcurrentHashMap<LocalDate, Boolean> isDateAHoliday = new ConcurrentHashMap<>();
-
-  private static final String QUERY_FOR_PATTERN_HOLIDAYS = "SELECT h FROM Holiday h WHERE h.monthOfYear = :month and h.followsPatternObserv = true";
-  private static final String QUERY_FOR_FIXED_HOLIDAYS = "SELECT h FROM Holiday h WHERE h.monthOfYear = :month and h.isFixedDate = true and h.dayOfMonth >= :day1 and h.dayOfMonth <= :day2";
-
+  /**
+   * Observed dates keyed by {@link #getKey(Year)}, for rules that are not part of a
+   * {@link HolidayRuleSet}. A rule set gives its rules a date cache of its own, so dates resolved
+   * from superseded rules are dropped with them. Sized by the {@code holiday.dateCacheSize}
+   * system property.
+   */
+  protected static final BoundedLongCache<LocalDate> holidayDateCache =
+      BoundedLongCache.fromProperty("holiday.dateCacheSize", 4096);
+  private static final LocalDate NO_HOLIDAY = LocalDate.MIN;
 
   @Id
   @GeneratedValue(strategy= GenerationType.IDENTITY)
@@ -58,6 +69,20 @@ public class Holiday {
   @Column(name = "week_num")
   private int weekNumForPattern;
 
+  /**
+   * The calendars this rule belongs to; a rule with no calendars belongs to every calendar.
+   */
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "holiday_calendar", joinColumns = @JoinColumn(name = "holiday_id"))
+  @Column(name = "calendar")
+  private Set<String> calendars = new HashSet<>();
+
+  @Version
+  @Column(name = "version")
+  private long version;
+
+  @Transient
+  private BoundedLongCache<LocalDate> dateCache = holidayDateCache;
   @Transient
   private Month monthEnum;
   @Transient
@@ -80,69 +105,35 @@ public class Holiday {
     this.weekNumForPattern = weekNumForPattern;
   }
 
+  @PostLoad
+  protected void initTransientFields() {
+    this.monthEnum = Month.of(monthOfYear);
+    this.dayOfWeekEnum = fixedDayOfWeek == 0 ? null : DayOfWeek.of(fixedDayOfWeek);
+  }
+
   protected static boolean isAWeekend(LocalDate date) {
     return date.getDayOfWeek().equals(DayOfWeek.SATURDAY) || date.getDayOfWeek()
         .equals(DayOfWeek.SUNDAY);
   }
 
-  public static Boolean isAHoliday(LocalDate dateToCheck) {
-
-    synchronized (isDateAHoliday) {
-      if (isDateAHoliday.containsKey(dateToCheck)) {
-        return isDateAHoliday.get(dateToCheck);
-      }
-    }
-
-    int month = dateToCheck.getMonth().getValue();
-    int year = dateToCheck.getYear();
-
-    Session session;
-    try {
-      session = HibernateUtil.getSession();
-      Query<Holiday> holidayQueryFixed = session.createQuery(QUERY_FOR_PATTERN_HOLIDAYS, Holiday.class);
-      holidayQueryFixed.setParameter("month", month);
-      if (processHolidayQuery(holidayQueryFixed, year, dateToCheck)){
-        return true;
-      };
-
-      Query<Holiday> holidayQueryPattern = session.createQuery(QUERY_FOR_FIXED_HOLIDAYS, Holiday.class);
-
-      int day1 = dateToCheck.getDayOfMonth() - 2 <= 0 ? 1 : dateToCheck.getDayOfMonth() - 2;
-      int day2 = dateToCheck.getDayOfMonth() + 2 >= 31 ? 31 : dateToCheck.getDayOfMonth() + 2;
-
-      holidayQueryPattern.setParameter("month", month);
-      holidayQueryPattern.setParameter("day1", day1);
-      holidayQueryPattern.setParameter("day2", day2);
-      if(processHolidayQuery(holidayQueryPattern, year, dateToCheck)){
-        return true;
-      };
-    } catch (HibernateException ex) {
-      ex.printStackTrace();
-    }
-
-    synchronized (isDateAHoliday) {
-      isDateAHoliday.putIfAbsent(dateToCheck, false);
-    }
-    return false;
+  public static boolean isAHoliday(LocalDate dateToCheck) {
+    return HolidayCalendar.getDefault().isHoliday(dateToCheck);
   }
 
-  protected static Boolean processHolidayQuery(Query<Holiday> query, int year, LocalDate date){
-    List<Holiday> holidays = query.getResultList();
-
-    for (Holiday holiday : holidays) {
-      if (holiday.getHoliday(Year.of(year)).equals(date)) {
-        return true;
-      }
-    }
-
-    return false;
+  /**
+   * Returns the holidays of the default calendar observed in [start, end).
+   */
+  public static HolidayIndex holidaysBetween(LocalDate start, LocalDate end) {
+    return HolidayCalendar.getDefault().holidaysBetween(start, end);
   }
 
   public LocalDate getHoliday(Year year) {
-    String key = getKey(year);
-    synchronized (holidayDateCache) {
-      if (holidayDateCache.containsKey(key)) {
-        return holidayDateCache.get(key);
+    // Rules that have not been saved yet have no id to key them by and are not cached.
+    long key = holidayId == null ? 0 : getKey(year);
+    if (holidayId != null) {
+      LocalDate cached = dateCache.get(key);
+      if (cached != null) {
+        return cached == NO_HOLIDAY ? null : cached;
       }
     }
 
@@ -170,20 +161,23 @@ public class Holiday {
       holiday = holiday.plusWeeks(weekNumForPattern - 1);
     }
 
-    if (holiday != null) {
-      synchronized (holidayDateCache) {
-        holidayDateCache.put(key, holiday);
-      }
-      synchronized (isDateAHoliday) {
-        isDateAHoliday.put(holiday, true);
-      }
+    if (holidayId != null) {
+      dateCache.put(key, holiday == null ? NO_HOLIDAY : holiday);
     }
 
     return holiday;
   }
 
-  protected String getKey(Year year) {
-    return name + year.getValue();
+  void setDateCache(BoundedLongCache<LocalDate> dateCache) {
+    this.dateCache = dateCache;
+  }
+
+  protected long getKey(Year year) {
+    return getKey(holidayId, year.getValue());
+  }
+
+  protected static long getKey(long holidayId, int year) {
+    return holidayId << 32 | (year & 0xFFFFFFFFL);
   }
 
   public Long getHolidayId() {
@@ -270,4 +264,17 @@ public class Holiday {
   public void setWeekNumForPattern(int weekNumForPattern) {
     this.weekNumForPattern = weekNumForPattern;
   }
+
+  public Set<String> getCalendars() {
+    return Collections.unmodifiableSet(calendars);
+  }
+
+  public void setCalendars(Set<String> calendars) {
+    this.calendars.clear();
+    this.calendars.addAll(calendars);
+  }
+
+  public boolean appliesTo(String calendar) {
+    return calendars.isEmpty() || calendars.contains(calendar);
+  }
 }
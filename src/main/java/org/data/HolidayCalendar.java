@@ -0,0 +1,318 @@
+package org.data;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.metrics.Counter;
+import org.metrics.Metrics;
+
+/**
+ * A named holiday calendar: the rules of the current {@link HolidayRuleSet} that apply to it,
+ * resolved a year at a time into a 366-bit bitmap indexed by day-of-year, so that a holiday check
+ * is a single bit test once the year has been resolved. {@link #holidaysBetween} lists the
+ * holidays of a range from each year's holidays kept as sorted epoch days. Resolved years are kept
+ * in a {@link BoundedLongCache} sized by the {@code holiday.yearCacheSize} system property; any
+ * window of that many consecutive years stays resolved together.
+ *
+ * <p>Calendars that select the same rules share their resolved years, so stores in jurisdictions
+ * with identical rules cost no more memory than one. When the {@link HolidayRuleRepository}
+ * publishes a new rule set, every calendar moves to years resolved from it.
+ *
+ * <p>A calendar from {@link #forName} checks the repository for changed rules when it resolves a
+ * year. One from {@link #inMemory} only ever resolves from the rule set already published, so it
+ * never queries the database once the rules have been loaded; if none have been, it loads them
+ * once rather than resolve dates without holidays.
+ *
+ * <p>Year lookups are counted in the {@code holiday.years.hits} and {@code holiday.years.misses}
+ * metrics, and {@code holiday.years.size} is the number of years the default calendar holds.
+ * Every miss is also recorded as an {@code org.checkout.HolidayYearMiss} flight recorder event.
+ */
+public class HolidayCalendar {
+
+  public static final String DEFAULT_NAME = "US";
+
+  static final int WORDS_PER_YEAR = 6;
+
+  private static final long[][] WEEKEND_MASKS = buildWeekendMasks();
+  private static final ConcurrentHashMap<String, HolidayCalendar> CALENDARS =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String, HolidayCalendar> IN_MEMORY_CALENDARS =
+      new ConcurrentHashMap<>();
+  private static final HolidayCalendar DEFAULT = forName(DEFAULT_NAME);
+  private static final Counter YEAR_HITS = Metrics.getDefault().counter("holiday.years.hits");
+  private static final Counter YEAR_MISSES = Metrics.getDefault().counter("holiday.years.misses");
+
+  static {
+    Metrics.getDefault().ratio("holiday.years.hitRatio", YEAR_HITS, YEAR_MISSES);
+    Metrics.getDefault().gauge("holiday.years.size", () -> DEFAULT.getYears().size());
+    Metrics.getDefault().gauge("holiday.dates.size",
+        () -> HolidayRuleRepository.getDefault().latest().getDateCacheSize());
+  }
+
+  private final String name;
+  private final HolidayRuleRepository repository;
+  private final boolean checksForChanges;
+  private volatile HolidayYears years;
+
+  HolidayCalendar(HolidayRuleRepository repository) {
+    this(DEFAULT_NAME, repository);
+  }
+
+  HolidayCalendar(String name, HolidayRuleRepository repository) {
+    this(name, repository, true);
+  }
+
+  HolidayCalendar(String name, HolidayRuleRepository repository, boolean checksForChanges) {
+    this.name = name;
+    this.repository = repository;
+    this.checksForChanges = checksForChanges;
+  }
+
+  public static HolidayCalendar getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the calendar with the given name, or the default calendar when the name is null.
+   * Throws if no current rule names the calendar, so only known calendars are kept.
+   */
+  public static HolidayCalendar forName(String name) {
+    if (name == null) {
+      return DEFAULT;
+    }
+    HolidayCalendar known = CALENDARS.get(name);
+    if (known != null) {
+      return known;
+    }
+    if (!DEFAULT_NAME.equals(name)
+        && !HolidayRuleRepository.getDefault().current().getCalendarNames().contains(name)) {
+      throw new IllegalArgumentException("There is no holiday calendar named " + name);
+    }
+    return CALENDARS.computeIfAbsent(name,
+        calendar -> new HolidayCalendar(calendar, HolidayRuleRepository.getDefault()));
+  }
+
+  /**
+   * Returns a view of the named calendar that resolves years only from the holiday rules already
+   * in memory, loading them once if none have been published. It shares resolved years with
+   * {@link #forName} and follows new rule sets as soon as anything publishes them. Throws if no
+   * current rule names the calendar.
+   */
+  public static HolidayCalendar inMemory(String name) {
+    String calendarName = name == null ? DEFAULT_NAME : name;
+    HolidayCalendar known = IN_MEMORY_CALENDARS.get(calendarName);
+    if (known != null) {
+      return known;
+    }
+    if (!isKnown(calendarName)) {
+      throw new IllegalArgumentException("There is no holiday calendar named " + name);
+    }
+    return IN_MEMORY_CALENDARS.computeIfAbsent(calendarName,
+        calendar -> new HolidayCalendar(calendar, HolidayRuleRepository.getDefault(), false));
+  }
+
+  /**
+   * Returns whether the name is the default calendar or is named by at least one current rule.
+   * Like {@link #forName}, this loads the rules first if none have been published.
+   */
+  public static boolean isKnown(String name) {
+    return DEFAULT_NAME.equals(name)
+        || HolidayRuleRepository.getDefault().current().getCalendarNames().contains(name);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isHoliday(LocalDate date) {
+    long[] bitmap = getYearBitmap(date.getYear());
+    int bit = date.getDayOfYear() - 1;
+    return (bitmap[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  public int countHolidays(LocalDate start, LocalDate end, boolean onWeekends) {
+    int count = 0;
+    LocalDate from = start;
+
+    while (from.isBefore(end)) {
+      int year = from.getYear();
+      LocalDate nextYear = LocalDate.of(year + 1, 1, 1);
+      int fromBit = from.getDayOfYear() - 1;
+      int toBit = end.isBefore(nextYear) ? end.getDayOfYear() - 1 : from.lengthOfYear();
+
+      count += countInYear(getYearBitmap(year), WEEKEND_MASKS[firstDayOfWeek(year)], fromBit,
+          toBit, onWeekends);
+      from = nextYear;
+    }
+
+    return count;
+  }
+
+  /**
+   * Returns the observed holidays in [start, end), in date order.
+   */
+  public HolidayIndex holidaysBetween(LocalDate start, LocalDate end) {
+    if (!start.isBefore(end)) {
+      return HolidayIndex.EMPTY;
+    }
+
+    int startDay = Math.toIntExact(start.toEpochDay());
+    int endDay = Math.toIntExact(end.toEpochDay());
+    int[][] slices = new int[end.getYear() - start.getYear() + 1][];
+    int[] from = new int[slices.length];
+    int[] to = new int[slices.length];
+    int count = 0;
+
+    for (int i = 0; i < slices.length; i++) {
+      slices[i] = getYearDays(start.getYear() + i);
+      from[i] = HolidayIndex.lowerBound(slices[i], startDay);
+      to[i] = HolidayIndex.lowerBound(slices[i], endDay);
+      count += to[i] - from[i];
+    }
+
+    int[] days = new int[count];
+    int copied = 0;
+    for (int i = 0; i < slices.length; i++) {
+      System.arraycopy(slices[i], from[i], days, copied, to[i] - from[i]);
+      copied += to[i] - from[i];
+    }
+    return new HolidayIndex(days);
+  }
+
+  /**
+   * Reloads the holiday rules, which drops the resolved years of every calendar.
+   */
+  public void invalidate() {
+    repository.reload();
+  }
+
+  public void preloadYears(int fromYear, int toYear) {
+    for (int year = fromYear; year <= toYear; year++) {
+      getYearBitmap(year);
+    }
+  }
+
+  long[] getYearBitmap(int year) {
+    HolidayYears current = getYears();
+    long[] bitmap = current.get(year);
+    if (bitmap != null) {
+      YEAR_HITS.increment();
+      return bitmap;
+    }
+    YEAR_MISSES.increment();
+    HolidayYearEvent event = new HolidayYearEvent();
+    event.begin();
+
+    boolean reloaded = false;
+    if (checksForChanges) {
+      HolidayRuleSet checked = repository.current();
+      if (checked != current.getRuleSet()) {
+        current = bind(checked);
+        reloaded = true;
+      }
+    }
+    bitmap = current.load(year);
+
+    if (event.shouldCommit()) {
+      event.calendar = name;
+      event.year = year;
+      event.checkedForChanges = checksForChanges;
+      event.rulesReloaded = reloaded;
+      event.rules = current.getRules().size();
+      event.commit();
+    }
+    return bitmap;
+  }
+
+  int[] getYearDays(int year) {
+    // Resolving the bitmap first checks for changed rules exactly as a holiday lookup would.
+    getYearBitmap(year);
+    return getYears().days(year);
+  }
+
+  HolidayYears getYears() {
+    HolidayYears current = years;
+    // A calendar that never checks for changes still loads the rules once if none are published.
+    HolidayRuleSet latest = checksForChanges ? repository.latest() : repository.loaded();
+    return current == null || current.getRuleSet() != latest ? bind(latest) : current;
+  }
+
+  private HolidayYears bind(HolidayRuleSet rules) {
+    HolidayYears bound = rules.yearsFor(name);
+    years = bound;
+    return bound;
+  }
+
+  static long[] resolveYear(int year, List<Holiday> rules) {
+    long[] bitmap = new long[WORDS_PER_YEAR];
+
+    for (Holiday rule : rules) {
+      // Weekend observance can move a holiday across the new year, so the neighbouring years are
+      // resolved as well and only the dates that land in the requested year are kept.
+      for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+        LocalDate observed = rule.getHoliday(Year.of(ruleYear));
+        if (observed != null && observed.getYear() == year) {
+          int bit = observed.getDayOfYear() - 1;
+          bitmap[bit >>> 6] |= 1L << bit;
+        }
+      }
+    }
+
+    return bitmap;
+  }
+
+  static int[] toEpochDays(int year, long[] bitmap) {
+    int count = 0;
+    for (long word : bitmap) {
+      count += Long.bitCount(word);
+    }
+
+    int[] days = new int[count];
+    int firstDay = Math.toIntExact(LocalDate.of(year, 1, 1).toEpochDay());
+    int next = 0;
+    for (int word = 0; word < bitmap.length; word++) {
+      for (long bits = bitmap[word]; bits != 0; bits &= bits - 1) {
+        days[next++] = firstDay + (word << 6) + Long.numberOfTrailingZeros(bits);
+      }
+    }
+    return days;
+  }
+
+  static int countInYear(long[] bitmap, long[] weekendMask, int fromBit, int toBit,
+      boolean onWeekends) {
+    int count = 0;
+    int firstWord = fromBit >>> 6;
+    int lastWord = (toBit - 1) >>> 6;
+
+    for (int word = firstWord; word <= lastWord; word++) {
+      long mask = onWeekends ? weekendMask[word] : ~weekendMask[word];
+      if (word == firstWord) {
+        mask &= -1L << fromBit;
+      }
+      if (word == lastWord) {
+        mask &= -1L >>> (63 - ((toBit - 1) & 63));
+      }
+      count += Long.bitCount(bitmap[word] & mask);
+    }
+
+    return count;
+  }
+
+  private static int firstDayOfWeek(int year) {
+    return LocalDate.of(year, 1, 1).getDayOfWeek().getValue() - 1;
+  }
+
+  private static long[][] buildWeekendMasks() {
+    long[][] masks = new long[7][WORDS_PER_YEAR];
+    for (int firstDay = 0; firstDay < 7; firstDay++) {
+      for (int bit = 0; bit < WORDS_PER_YEAR * 64; bit++) {
+        if ((firstDay + bit) % 7 >= 5) {
+          masks[firstDay][bit >>> 6] |= 1L << bit;
+        }
+      }
+    }
+    return masks;
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.data;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The observed holidays of a date range as a sorted array of epoch days. Membership and the
+ * number of holidays in any sub-range are answered by binary search, so a rental window of any
+ * length is classified with two searches rather than one probe per day.
+ */
+public final class HolidayIndex {
+
+  static final HolidayIndex EMPTY = new HolidayIndex(new int[0]);
+
+  private final int[] epochDays;
+
+  HolidayIndex(int[] epochDays) {
+    this.epochDays = epochDays;
+  }
+
+  public int size() {
+    return epochDays.length;
+  }
+
+  public boolean isEmpty() {
+    return epochDays.length == 0;
+  }
+
+  public LocalDate get(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]);
+  }
+
+  public boolean contains(LocalDate date) {
+    return Arrays.binarySearch(epochDays, toEpochDay(date)) >= 0;
+  }
+
+  /**
+   * Counts the holidays in [start, end).
+   */
+  public int countBetween(LocalDate start, LocalDate end) {
+    if (!start.isBefore(end)) {
+      return 0;
+    }
+    return lowerBound(epochDays, toEpochDay(end)) - lowerBound(epochDays, toEpochDay(start));
+  }
+
+  /**
+   * Returns the holidays as dates, converted as they are read.
+   */
+  public List<LocalDate> toList() {
+    return new AbstractList<LocalDate>() {
+      @Override
+      public LocalDate get(int index) {
+        return HolidayIndex.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return epochDays.length;
+      }
+    };
+  }
+
+  /**
+   * Returns the index of the first day that is not before {@code epochDay}.
+   */
+  static int lowerBound(int[] days, int epochDay) {
+    int low = 0;
+    int high = days.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (days[middle] < epochDay) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int toEpochDay(LocalDate date) {
+    return Math.toIntExact(date.toEpochDay());
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+}
@@ -0,0 +1,230 @@
+package org.data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.hibernate.HibernateException;
+import org.hibernate.HibernateUtil;
+import org.hibernate.query.Query;
+import org.metrics.Counter;
+import org.metrics.Metrics;
+
+/**
+ * Holds the current {@link HolidayRuleSet}. The whole holiday table is loaded at once and every
+ * date is resolved from that snapshot in memory. Changes are detected by comparing the table's
+ * signature with the snapshot's, at most once per check interval, and a changed table is reloaded
+ * and swapped in atomically. An empty rule set is checked on every call so that rules seeded after
+ * startup are picked up straight away.
+ *
+ * <p>Calendars only ask for the current rule set when they resolve a year they have not cached,
+ * so the default repository also checks in the background once per check interval, starting
+ * after its first load. Cached years then follow table edits within one interval.
+ *
+ * <p>If the database cannot be read, the last rule set stays in place. The check interval is read
+ * from the {@code holiday.rulesCheckInterval} system property in milliseconds and defaults to five
+ * seconds.
+ */
+public class HolidayRuleRepository {
+
+  private static final String QUERY_FOR_ALL_HOLIDAYS =
+      "SELECT DISTINCT h FROM Holiday h LEFT JOIN FETCH h.calendars";
+  private static final String QUERY_FOR_SIGNATURE =
+      "SELECT count(h), coalesce(max(h.holidayId), 0), coalesce(sum(h.version), 0) FROM Holiday h";
+
+  private static final HolidayRuleRepository DEFAULT = new HolidayRuleRepository(
+      HolidayRuleRepository::loadRules, HolidayRuleRepository::loadSignature,
+      Duration.ofMillis(Long.getLong("holiday.rulesCheckInterval", 5000)), true);
+
+  private static final Counter RULE_LOADS = Metrics.getDefault().counter("holiday.rules.loads");
+
+  private final Supplier<List<Holiday>> ruleLoader;
+  private final Supplier<long[]> signatureLoader;
+  private final long checkIntervalNanos;
+  private final boolean refreshesInBackground;
+  private final ReentrantLock reloadLock = new ReentrantLock();
+  private volatile HolidayRuleSet latest = HolidayRuleSet.EMPTY;
+  private volatile long checkedAt;
+  private ScheduledExecutorService refresher;
+
+  HolidayRuleRepository(Supplier<List<Holiday>> ruleLoader, Supplier<long[]> signatureLoader,
+      Duration checkInterval) {
+    this(ruleLoader, signatureLoader, checkInterval, false);
+  }
+
+  HolidayRuleRepository(Supplier<List<Holiday>> ruleLoader, Supplier<long[]> signatureLoader,
+      Duration checkInterval, boolean refreshesInBackground) {
+    this.ruleLoader = ruleLoader;
+    this.signatureLoader = signatureLoader;
+    this.checkIntervalNanos = checkInterval.toNanos();
+    this.refreshesInBackground = refreshesInBackground;
+    this.checkedAt = System.nanoTime() - checkIntervalNanos;
+  }
+
+  public static HolidayRuleRepository getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the last published rule set without touching the database.
+   */
+  public HolidayRuleSet latest() {
+    return latest;
+  }
+
+  /**
+   * Returns the last published rule set, loading the rules once first if none has been published
+   * yet, so that dates are never resolved as if there were no holidays. Throws if the rules cannot
+   * be loaded.
+   */
+  public HolidayRuleSet loaded() {
+    HolidayRuleSet rules = latest;
+    if (rules != HolidayRuleSet.EMPTY) {
+      return rules;
+    }
+
+    reloadLock.lock();
+    try {
+      if (latest == HolidayRuleSet.EMPTY) {
+        long[] signature = signatureLoader.get();
+        checkedAt = System.nanoTime();
+        if (signature != null) {
+          load(signature);
+        }
+      }
+      if (latest == HolidayRuleSet.EMPTY) {
+        throw new IllegalStateException("The holiday rules could not be loaded");
+      }
+      return latest;
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the current rule set, first checking the table for changes if the check interval has
+   * passed or the rule set is empty.
+   */
+  public HolidayRuleSet current() {
+    HolidayRuleSet rules = latest;
+    if (rules.isEmpty() || System.nanoTime() - checkedAt >= checkIntervalNanos) {
+      return refresh();
+    }
+    return rules;
+  }
+
+  /**
+   * Checks the table's signature now and reloads the rules if it has changed.
+   */
+  public HolidayRuleSet refresh() {
+    reloadLock.lock();
+    try {
+      long[] signature = signatureLoader.get();
+      checkedAt = System.nanoTime();
+      if (signature != null && !latest.hasSignature(signature)) {
+        load(signature);
+      }
+      return latest;
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Loads the rules now, whether or not the table has changed.
+   */
+  public HolidayRuleSet reload() {
+    reloadLock.lock();
+    try {
+      long[] signature = signatureLoader.get();
+      checkedAt = System.nanoTime();
+      if (signature != null) {
+        load(signature);
+      }
+      return latest;
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Forgets the published rule set, as if the rules had never been loaded.
+   */
+  void unpublish() {
+    reloadLock.lock();
+    try {
+      latest = HolidayRuleSet.EMPTY;
+      checkedAt = System.nanoTime() - checkIntervalNanos;
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Checks the table for changes in the background once per check interval.
+   */
+  public void startAutoRefresh() {
+    startAutoRefresh(Duration.ofNanos(Math.max(checkIntervalNanos, 1_000_000)));
+  }
+
+  public synchronized void startAutoRefresh(Duration interval) {
+    if (refresher == null) {
+      refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "holiday-rules-refresh");
+        thread.setDaemon(true);
+        return thread;
+      });
+      refresher.scheduleWithFixedDelay(this::refresh, interval.toMillis(), interval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public synchronized void stopAutoRefresh() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+      refresher = null;
+    }
+  }
+
+  private void load(long[] signature) {
+    List<Holiday> rules = ruleLoader.get();
+    RULE_LOADS.increment();
+    if (rules == null) {
+      return;
+    }
+    // A table that changed between the two queries is caught by the next check, because the
+    // published signature no longer matches.
+    latest = new HolidayRuleSet(new ArrayList<>(rules), signature[0], signature[1], signature[2]);
+    if (refreshesInBackground) {
+      startAutoRefresh();
+    }
+  }
+
+  private static List<Holiday> loadRules() {
+    try {
+      return HibernateUtil.inSession(session -> {
+        Query<Holiday> query = session.createQuery(QUERY_FOR_ALL_HOLIDAYS, Holiday.class);
+        return query.getResultList();
+      });
+    } catch (HibernateException ex) {
+      ex.printStackTrace();
+    }
+    return null;
+  }
+
+  private static long[] loadSignature() {
+    try {
+      Object[] row = HibernateUtil.inSession(session ->
+          session.createQuery(QUERY_FOR_SIGNATURE, Object[].class).getSingleResult());
+      return new long[] {((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+          ((Number) row[2]).longValue()};
+    } catch (HibernateException ex) {
+      ex.printStackTrace();
+    }
+    return null;
+  }
+}
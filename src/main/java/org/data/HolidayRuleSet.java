@@ -0,0 +1,91 @@
+package org.data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of every {@link Holiday} rule, with the signature of the table it was loaded
+ * from: the row count, the highest id and the sum of the row versions. Any insert, delete or
+ * versioned update of the holiday table changes the signature.
+ *
+ * <p>The resolved years of each calendar, and the observed dates of each rule, are kept with the
+ * rule set they were resolved from and are dropped with it. Calendars that select the same rules
+ * share one {@link HolidayYears}.
+ */
+public final class HolidayRuleSet {
+
+  static final HolidayRuleSet EMPTY = new HolidayRuleSet(Collections.emptyList(), 0, 0, 0);
+
+  private final List<Holiday> rules;
+  private final long rowCount;
+  private final long maxId;
+  private final long versionSum;
+  private final Set<String> calendarNames;
+  private final BoundedLongCache<LocalDate> dates =
+      BoundedLongCache.fromProperty("holiday.dateCacheSize", 4096);
+  private final ConcurrentHashMap<String, HolidayYears> yearsByCalendar = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<List<Holiday>, HolidayYears> sharedYears =
+      new ConcurrentHashMap<>();
+
+  HolidayRuleSet(List<Holiday> rules, long rowCount, long maxId, long versionSum) {
+    this.rules = Collections.unmodifiableList(rules);
+    this.rowCount = rowCount;
+    this.maxId = maxId;
+    this.versionSum = versionSum;
+
+    Set<String> names = new HashSet<>();
+    for (Holiday rule : rules) {
+      names.addAll(rule.getCalendars());
+      rule.setDateCache(dates);
+    }
+    this.calendarNames = Collections.unmodifiableSet(names);
+  }
+
+  public List<Holiday> getRules() {
+    return rules;
+  }
+
+  /**
+   * Returns the names of the calendars that at least one rule is limited to.
+   */
+  public Set<String> getCalendarNames() {
+    return calendarNames;
+  }
+
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  int getDateCacheSize() {
+    return dates.size();
+  }
+
+  boolean hasSignature(long[] signature) {
+    return rowCount == signature[0] && maxId == signature[1] && versionSum == signature[2];
+  }
+
+  HolidayYears yearsFor(String calendar) {
+    HolidayYears years = yearsByCalendar.get(calendar);
+    if (years != null) {
+      return years;
+    }
+
+    // Rules compare by identity, so two calendars share their years exactly when they select the
+    // same rule objects of this set.
+    List<Holiday> calendarRules = new ArrayList<>();
+    for (Holiday rule : rules) {
+      if (rule.appliesTo(calendar)) {
+        calendarRules.add(rule);
+      }
+    }
+    HolidayYears shared = sharedYears.computeIfAbsent(calendarRules,
+        selected -> new HolidayYears(this, Collections.unmodifiableList(selected)));
+    HolidayYears raced = yearsByCalendar.putIfAbsent(calendar, shared);
+    return raced != null ? raced : shared;
+  }
+}
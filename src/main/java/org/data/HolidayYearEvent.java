@@ -0,0 +1,32 @@
+package org.data;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.checkout.HolidayYearMiss")
+@Label("Holiday Year Miss")
+@Category({"Checkout"})
+@Description("Resolving a year of a holiday calendar that was not cached, including any check "
+    + "of the holiday table for changed rules")
+@StackTrace(false)
+final class HolidayYearEvent extends Event {
+
+  @Label("Holiday Calendar")
+  String calendar;
+
+  @Label("Year")
+  int year;
+
+  @Label("Checked For Changes")
+  boolean checkedForChanges;
+
+  @Label("Rules Reloaded")
+  boolean rulesReloaded;
+
+  @Label("Rules")
+  int rules;
+}
@@ -0,0 +1,94 @@
+package org.data;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The resolved years of one list of holiday rules. Calendars that select the same rules from a
+ * {@link HolidayRuleSet} share one instance, so resolved years are held once no matter how many
+ * calendars use them.
+ *
+ * <p>Hits never lock. Concurrent misses for the same year share one in-flight load: the first
+ * thread resolves the year while the others wait for its result.
+ */
+final class HolidayYears {
+
+  private final HolidayRuleSet ruleSet;
+  private final List<Holiday> rules;
+  private final BoundedLongCache<long[]> yearBitmaps =
+      BoundedLongCache.fromProperty("holiday.yearCacheSize", 512);
+  private final BoundedLongCache<int[]> yearDays =
+      BoundedLongCache.fromProperty("holiday.yearCacheSize", 512);
+  private final ConcurrentHashMap<Integer, CompletableFuture<long[]>> loadingYears =
+      new ConcurrentHashMap<>();
+
+  HolidayYears(HolidayRuleSet ruleSet, List<Holiday> rules) {
+    this.ruleSet = ruleSet;
+    this.rules = rules;
+  }
+
+  HolidayRuleSet getRuleSet() {
+    return ruleSet;
+  }
+
+  List<Holiday> getRules() {
+    return rules;
+  }
+
+  int size() {
+    return yearBitmaps.size();
+  }
+
+  long[] get(int year) {
+    return yearBitmaps.get(year);
+  }
+
+  /**
+   * Returns the observed holidays of the year as sorted epoch days, built from its bitmap the
+   * first time they are asked for.
+   */
+  int[] days(int year) {
+    int[] days = yearDays.get(year);
+    if (days == null) {
+      long[] bitmap = get(year);
+      days = HolidayCalendar.toEpochDays(year, bitmap != null ? bitmap : load(year));
+      if (!ruleSet.isEmpty()) {
+        yearDays.put(year, days);
+      }
+    }
+    return days;
+  }
+
+  long[] load(int year) {
+    CompletableFuture<long[]> load = new CompletableFuture<>();
+    CompletableFuture<long[]> inFlight = loadingYears.putIfAbsent(year, load);
+    if (inFlight != null) {
+      try {
+        return inFlight.join();
+      } catch (CompletionException ex) {
+        throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+      }
+    }
+
+    try {
+      // Another thread may have published the year between the cache miss and claiming the load.
+      long[] bitmap = yearBitmaps.get(year);
+      if (bitmap == null) {
+        bitmap = HolidayCalendar.resolveYear(year, rules);
+        // An empty holiday table is not cached so that rules seeded after startup are picked up.
+        if (!ruleSet.isEmpty()) {
+          yearBitmaps.put(year, bitmap);
+        }
+      }
+      load.complete(bitmap);
+      return bitmap;
+    } catch (RuntimeException ex) {
+      load.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      loadingYears.remove(year, load);
+    }
+  }
+}
@@ -7,22 +7,29 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.hibernate.HibernateException;
 import org.hibernate.HibernateUtil;
-import org.hibernate.Session;
 import org.hibernate.query.Query;
+import org.hibernate.stat.Statistics;
 
 @Entity
 @Table(name = "rental")
 public class Rental {
 
   private static final String QUERY_FOR_TOOL = "SELECT t FROM Tool t WHERE t.code = :code";
+  private static final String QUERY_FOR_TOOLS = "SELECT t FROM Tool t LEFT JOIN FETCH t.type WHERE t.code IN :codes";
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rental_seq")
+  @SequenceGenerator(name = "rental_seq", sequenceName = "rental_seq",
+      allocationSize = RentalWriter.DEFAULT_BATCH_SIZE)
   @Column(name = "rental_id")
   private long rentalId;
 
@@ -39,16 +46,37 @@ public class Rental {
   @Column(name = "checkout_date")
   private LocalDate checkoutDate;
 
+  @Column(name = "calendar")
+  private String calendar;
+
   public Rental(){
 
   }
 
   public Rental(String toolCode, int days, int discount, LocalDate checkoutDate)
   {
-    try {
-      this.tool = processToolQuery(toolCode);
-    } catch (HibernateException ex) {
-      ex.printStackTrace();
+    ToolLookupEvent event = new ToolLookupEvent();
+    event.begin();
+    this.tool = ToolCatalog.current().getTool(toolCode);
+    boolean catalogHit = this.tool != null;
+    long statements = 0;
+    if (this.tool == null) {
+      try {
+        Statistics statistics = event.isEnabled() ? HibernateUtil.getStatistics() : null;
+        long preparedBefore = statistics == null ? 0 : statistics.getPrepareStatementCount();
+        this.tool = processToolQuery(toolCode);
+        statements = statistics == null ? 0
+            : statistics.getPrepareStatementCount() - preparedBefore;
+      } catch (HibernateException ex) {
+        ex.printStackTrace();
+      }
+    }
+    if (event.shouldCommit()) {
+      event.toolCode = toolCode;
+      event.catalogHit = catalogHit;
+      event.queries = statements;
+      event.found = this.tool != null;
+      event.commit();
     }
 
     this.days = days;
@@ -56,10 +84,21 @@ public class Rental {
     this.checkoutDate = checkoutDate;
   }
 
+  public Rental(Tool tool, int days, int discount, LocalDate checkoutDate) {
+    this.tool = tool;
+    this.days = days;
+    this.discount = discount;
+    this.checkoutDate = checkoutDate;
+  }
+
   public long getRentalId() {
     return rentalId;
   }
 
+  void clearRentalId() {
+    this.rentalId = 0;
+  }
+
   public Tool getTool() {
     return tool;
   }
@@ -76,12 +115,25 @@ public class Rental {
     return checkoutDate;
   }
 
-  protected static Tool processToolQuery(String toolCode){
-    Session session = HibernateUtil.getSession();
-    Query<Tool> query = session.createQuery(QUERY_FOR_TOOL, Tool.class);
-    query.setParameter("code", toolCode);
+  /**
+   * Returns the name of the holiday calendar the rental is charged by, or null for the default
+   * calendar.
+   */
+  public String getCalendar() {
+    return calendar;
+  }
 
-    List<Tool> tools = query.getResultList();
+  public void setCalendar(String calendar) {
+    this.calendar = calendar;
+  }
+
+  protected static Tool processToolQuery(String toolCode){
+    List<Tool> tools = HibernateUtil.inSession(session -> {
+      Query<Tool> query = session.createQuery(QUERY_FOR_TOOL, Tool.class);
+      query.setParameter("code", toolCode);
+      query.setCacheable(true);
+      return query.getResultList();
+    });
 
     if (tools.size() > 0){
       return tools.get(0);
@@ -89,4 +141,24 @@ public class Rental {
 
     return null;
   }
+
+  public static Map<String, Tool> processToolsQuery(Collection<String> toolCodes) {
+    Map<String, Tool> toolsByCode = new HashMap<>();
+    if (toolCodes.isEmpty()) {
+      return toolsByCode;
+    }
+
+    List<Tool> tools = HibernateUtil.inSession(session -> {
+      Query<Tool> query = session.createQuery(QUERY_FOR_TOOLS, Tool.class);
+      query.setParameter("codes", toolCodes);
+      query.setCacheable(true);
+      return query.getResultList();
+    });
+
+    for (Tool tool : tools) {
+      toolsByCode.put(tool.getCode(), tool);
+    }
+
+    return toolsByCode;
+  }
 }
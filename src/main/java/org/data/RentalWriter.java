@@ -0,0 +1,157 @@
+package org.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.HibernateUtil;
+
+/**
+ * Group-commit writer for {@link Rental} rows. Callers queue a rental and get a future back; a
+ * single writer thread drains whatever has queued up, persists the whole batch in one transaction
+ * and JDBC batch, and completes each caller's future once that transaction commits. While one
+ * batch commits the next one accumulates, so the commit rate stays flat as checkouts grow. If a
+ * batch is rolled back its rentals are retried one per transaction, so only the rentals that
+ * cannot be stored fail.
+ */
+public class RentalWriter implements AutoCloseable {
+
+  public static final int DEFAULT_BATCH_SIZE = 50;
+
+  private static RentalWriter defaultWriter;
+
+  private final BlockingQueue<PendingRental> queue = new LinkedBlockingQueue<>();
+  private final int maxBatchSize;
+  private final Thread writer;
+  private final Object lifecycle = new Object();
+  private volatile boolean running = true;
+
+  public RentalWriter(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+    this.writer = new Thread(this::run, "rental-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public static synchronized RentalWriter getDefault() {
+    if (defaultWriter == null) {
+      defaultWriter = new RentalWriter(DEFAULT_BATCH_SIZE);
+    }
+    return defaultWriter;
+  }
+
+  /**
+   * Queues the rental for the next batch. The returned future completes with the rental, its id
+   * assigned, once the batch commits, or exceptionally if the batch is rolled back.
+   */
+  public CompletableFuture<Rental> submit(Rental rental) {
+    CompletableFuture<Rental> stored = new CompletableFuture<>();
+    // Checked and queued under the lock close takes, so nothing is queued after the final drain.
+    synchronized (lifecycle) {
+      if (!running) {
+        stored.completeExceptionally(new RuntimeException("The rental writer is closed"));
+        return stored;
+      }
+      queue.add(new PendingRental(rental, stored));
+    }
+    return stored;
+  }
+
+  /**
+   * Stops accepting rentals, writes everything already queued and waits for the writer thread.
+   */
+  @Override
+  public void close() {
+    synchronized (lifecycle) {
+      running = false;
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<PendingRental> stranded = new ArrayList<>();
+    queue.drainTo(stranded);
+    fail(stranded, new RuntimeException("The rental writer is closed"));
+  }
+
+  private void run() {
+    List<PendingRental> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingRental first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+      } catch (InterruptedException ex) {
+        break;
+      }
+
+      queue.drainTo(batch, maxBatchSize - 1);
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<PendingRental> batch) {
+    try {
+      persist(batch);
+    } catch (RuntimeException ex) {
+      if (batch.size() == 1) {
+        fail(batch, ex);
+        return;
+      }
+      writeOneByOne(batch);
+      return;
+    }
+
+    for (PendingRental pending : batch) {
+      pending.stored.complete(pending.rental);
+    }
+  }
+
+  private void writeOneByOne(List<PendingRental> batch) {
+    for (PendingRental pending : batch) {
+      // The rolled back batch assigned ids that were never stored.
+      pending.rental.clearRentalId();
+    }
+    for (PendingRental pending : batch) {
+      try {
+        persist(List.of(pending));
+        pending.stored.complete(pending.rental);
+      } catch (RuntimeException ex) {
+        pending.stored.completeExceptionally(ex);
+      }
+    }
+  }
+
+  private static void persist(List<PendingRental> batch) {
+    HibernateUtil.inTransaction(session -> {
+      for (PendingRental pending : batch) {
+        session.persist(pending.rental);
+      }
+      return null;
+    });
+  }
+
+  private static void fail(List<PendingRental> batch, RuntimeException ex) {
+    for (PendingRental pending : batch) {
+      pending.stored.completeExceptionally(ex);
+    }
+  }
+
+  private static class PendingRental {
+
+    private final Rental rental;
+    private final CompletableFuture<Rental> stored;
+
+    private PendingRental(Rental rental, CompletableFuture<Rental> stored) {
+      this.rental = rental;
+      this.stored = stored;
+    }
+  }
+}
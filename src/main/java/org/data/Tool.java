@@ -1,6 +1,7 @@
 package org.data;
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -10,10 +11,13 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import org.hibernate.HibernateUtil;
-import org.hibernate.Session;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tool")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "tool")
 public class Tool {
   @Id
   @Column(name = "code")
@@ -33,8 +37,16 @@ public class Tool {
 
   public Tool(String code, String type, Brand toolBrand) {
     this.code = code;
-    Session session = HibernateUtil.getSession();
-    this.type = session.get(Charges.class, type);
+    this.type = ToolCatalog.current().getCharges(type);
+    if (this.type == null) {
+      this.type = HibernateUtil.inSession(session -> session.get(Charges.class, type));
+    }
+    this.toolBrand = toolBrand;
+  }
+
+  public Tool(String code, Charges type, Brand toolBrand) {
+    this.code = code;
+    this.type = type;
     this.toolBrand = toolBrand;
   }
 
@@ -0,0 +1,173 @@
+package org.data;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hibernate.HibernateException;
+import org.hibernate.HibernateUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+/**
+ * The days each tool is reserved, as [checkout, due) ranges of epoch days. A tool's ranges never
+ * overlap and are kept in a sorted map from start to end, so whether a new range is free is
+ * answered from its two neighbours in O(log n). Checking and reserving are one atomic step under
+ * the tool's own lock, so two checkouts of the same tool can never both win overlapping days,
+ * while checkouts of different tools never wait on each other.
+ *
+ * <p>The default index is rebuilt from the rental table the first time it is used, or by
+ * {@link #rebuild()}, which the service calls at startup. Until the table has been read
+ * {@link #getDefault()} fails, so checkouts are refused rather than accepted unchecked. Rentals
+ * stored before this index existed may overlap each other; those ranges are merged.
+ */
+public final class ToolAvailability {
+
+  private static final String QUERY_FOR_RESERVATIONS =
+      "SELECT r.tool.code, r.checkoutDate, r.days FROM Rental r";
+
+  private static final AtomicReference<ToolAvailability> defaultIndex = new AtomicReference<>();
+
+  private volatile ConcurrentHashMap<String, Reservations> tools = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the default index, reading the rental table first if no index has been built yet.
+   * The table is read without holding a lock; if two threads both build, the first to finish is
+   * kept. Throws if the table cannot be read, and the next call tries again.
+   */
+  public static ToolAvailability getDefault() {
+    ToolAvailability index = defaultIndex.get();
+    if (index == null) {
+      ToolAvailability rebuilt = new ToolAvailability();
+      rebuilt.rebuild();
+      defaultIndex.compareAndSet(null, rebuilt);
+      index = defaultIndex.get();
+    }
+    return index;
+  }
+
+  /**
+   * Returns the default index if it has been built, or null.
+   */
+  static ToolAvailability getDefaultIfBuilt() {
+    return defaultIndex.get();
+  }
+
+  /**
+   * Returns whether the tool is free for every day in [from, to).
+   */
+  public boolean isAvailable(String toolCode, LocalDate from, LocalDate to) {
+    Reservations reservations = tools.get(toolCode);
+    return reservations == null || reservations.isFree(from.toEpochDay(), to.toEpochDay());
+  }
+
+  /**
+   * Reserves the tool for [from, to) if none of those days is reserved yet, and returns whether
+   * it did.
+   */
+  public boolean reserve(String toolCode, LocalDate from, LocalDate to) {
+    long start = from.toEpochDay();
+    long end = to.toEpochDay();
+    if (start >= end) {
+      return true;
+    }
+    return tools.computeIfAbsent(toolCode, code -> new Reservations()).reserve(start, end);
+  }
+
+  /**
+   * Releases a reservation made by {@link #reserve}, for a rental that was not stored after all.
+   */
+  public void release(String toolCode, LocalDate from, LocalDate to) {
+    Reservations reservations = tools.get(toolCode);
+    if (reservations != null) {
+      reservations.release(from.toEpochDay(), to.toEpochDay());
+    }
+  }
+
+  /**
+   * Records the range of a rental that is already stored, merging it with any range it overlaps.
+   */
+  void addStored(String toolCode, LocalDate from, LocalDate to) {
+    long start = from.toEpochDay();
+    long end = to.toEpochDay();
+    if (start < end) {
+      tools.computeIfAbsent(toolCode, code -> new Reservations()).merge(start, end);
+    }
+  }
+
+  /**
+   * Replaces the index with the reservations of the stored rentals, read through a cursor. If the
+   * table cannot be read the current index is kept and the failure is thrown. Reservations made
+   * while the table is read are only kept if their rentals were already stored, so rebuild before
+   * taking checkouts.
+   */
+  public void rebuild() {
+    ConcurrentHashMap<String, Reservations> rebuilt = new ConcurrentHashMap<>();
+    try {
+      HibernateUtil.inNewSession(session -> {
+        Query<Object[]> query = session.createQuery(QUERY_FOR_RESERVATIONS, Object[].class);
+        query.setFetchSize(1_000);
+        query.setReadOnly(true);
+        try (ScrollableResults<Object[]> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+          while (rows.next()) {
+            Object[] row = rows.get();
+            long start = ((LocalDate) row[1]).toEpochDay();
+            rebuilt.computeIfAbsent((String) row[0], code -> new Reservations())
+                .merge(start, start + (Integer) row[2]);
+          }
+        }
+        return null;
+      });
+    } catch (HibernateException ex) {
+      throw new RuntimeException("The tool reservations could not be read from the rental table",
+          ex);
+    }
+    tools = rebuilt;
+  }
+
+  private static final class Reservations {
+
+    private final TreeMap<Long, Long> endsByStart = new TreeMap<>();
+
+    private synchronized boolean isFree(long start, long end) {
+      Map.Entry<Long, Long> before = endsByStart.floorEntry(start);
+      if (before != null && before.getValue() > start) {
+        return false;
+      }
+      Map.Entry<Long, Long> after = endsByStart.ceilingEntry(start);
+      return after == null || after.getKey() >= end;
+    }
+
+    private synchronized boolean reserve(long start, long end) {
+      if (!isFree(start, end)) {
+        return false;
+      }
+      endsByStart.put(start, end);
+      return true;
+    }
+
+    private synchronized void release(long start, long end) {
+      endsByStart.remove(start, end);
+    }
+
+    private synchronized void merge(long start, long end) {
+      long mergedStart = start;
+      long mergedEnd = end;
+      Map.Entry<Long, Long> before = endsByStart.floorEntry(start);
+      if (before != null && before.getValue() >= start) {
+        mergedStart = before.getKey();
+        mergedEnd = Math.max(mergedEnd, before.getValue());
+        endsByStart.remove(before.getKey());
+      }
+      Map.Entry<Long, Long> after = endsByStart.ceilingEntry(mergedStart);
+      while (after != null && after.getKey() <= mergedEnd) {
+        mergedEnd = Math.max(mergedEnd, after.getValue());
+        endsByStart.remove(after.getKey());
+        after = endsByStart.ceilingEntry(mergedStart);
+      }
+      endsByStart.put(mergedStart, mergedEnd);
+    }
+  }
+}
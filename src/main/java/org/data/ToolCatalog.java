@@ -0,0 +1,140 @@
+package org.data;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import org.hibernate.HibernateException;
+import org.hibernate.HibernateUtil;
+
+/**
+ * Immutable snapshot of every {@link Tool} and {@link Charges} row. Readers get the current
+ * snapshot without locking; {@link #reload()} builds a new snapshot from the database and swaps it
+ * in atomically, bumping the version, so a checkout never waits for a reload in progress.
+ */
+public class ToolCatalog {
+
+  private static final String QUERY_FOR_ALL_TOOLS = "SELECT t FROM Tool t LEFT JOIN FETCH t.type";
+  private static final String QUERY_FOR_ALL_CHARGES = "SELECT c FROM Charges c";
+
+  private static final AtomicReference<ToolCatalog> current =
+      new AtomicReference<>(new ToolCatalog(0, Collections.emptyMap(), Collections.emptyMap()));
+  private static final ReentrantLock reloadLock = new ReentrantLock();
+  private static ScheduledExecutorService reloader;
+
+  private final long version;
+  private final Map<String, Tool> toolsByCode;
+  private final Map<String, Charges> chargesByType;
+
+  private ToolCatalog(long version, Map<String, Tool> toolsByCode,
+      Map<String, Charges> chargesByType) {
+    this.version = version;
+    this.toolsByCode = toolsByCode;
+    this.chargesByType = chargesByType;
+  }
+
+  public static ToolCatalog current() {
+    ToolCatalog catalog = current.get();
+    // The first caller loads the catalog; anyone arriving while that load runs keeps the empty
+    // snapshot and falls back to the database rather than waiting for it.
+    if (catalog.version == 0 && reloadLock.tryLock()) {
+      try {
+        if (current.get().version == 0) {
+          load();
+        }
+      } finally {
+        reloadLock.unlock();
+      }
+      catalog = current.get();
+    }
+    return catalog;
+  }
+
+  /**
+   * Returns the version of the published catalog without loading it; 0 until it is first loaded.
+   */
+  public static long currentVersion() {
+    return current.get().version;
+  }
+
+  public static ToolCatalog reload() {
+    reloadLock.lock();
+    try {
+      load();
+    } finally {
+      reloadLock.unlock();
+    }
+    return current.get();
+  }
+
+  public static synchronized void startAutoReload(Duration interval) {
+    if (reloader == null) {
+      reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tool-catalog-reload");
+        thread.setDaemon(true);
+        return thread;
+      });
+      reloader.scheduleWithFixedDelay(ToolCatalog::reload, interval.toMillis(),
+          interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public static synchronized void stopAutoReload() {
+    if (reloader != null) {
+      reloader.shutdownNow();
+      reloader = null;
+    }
+  }
+
+  private static void load() {
+    try {
+      ToolCatalog catalog = HibernateUtil.inNewSession(session -> {
+        List<Charges> charges = session.createQuery(QUERY_FOR_ALL_CHARGES, Charges.class)
+            .getResultList();
+        List<Tool> tools = session.createQuery(QUERY_FOR_ALL_TOOLS, Tool.class).getResultList();
+
+        Map<String, Charges> chargesByType = new HashMap<>();
+        for (Charges charge : charges) {
+          chargesByType.put(charge.getToolType(), charge);
+        }
+        Map<String, Tool> toolsByCode = new HashMap<>();
+        for (Tool tool : tools) {
+          toolsByCode.put(tool.getCode(), tool);
+        }
+
+        return new ToolCatalog(current.get().version + 1,
+            Collections.unmodifiableMap(toolsByCode), Collections.unmodifiableMap(chargesByType));
+      });
+      current.set(catalog);
+    } catch (HibernateException ex) {
+      ex.printStackTrace();
+    }
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Tool getTool(String code) {
+    return toolsByCode.get(code);
+  }
+
+  public Charges getCharges(String toolType) {
+    return chargesByType.get(toolType);
+  }
+
+  public Collection<Tool> getTools() {
+    return toolsByCode.values();
+  }
+
+  public Collection<Charges> getAllCharges() {
+    return chargesByType.values();
+  }
+}
@@ -0,0 +1,31 @@
+package org.data;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.checkout.ToolLookup")
+@Label("Tool Lookup")
+@Category({"Checkout"})
+@Description("Finding a rental's tool in the tool catalog, or in the database when the catalog "
+    + "does not have it")
+@StackTrace(false)
+final class ToolLookupEvent extends Event {
+
+  @Label("Tool Code")
+  String toolCode;
+
+  @Label("Catalog Hit")
+  boolean catalogHit;
+
+  @Label("Database Queries")
+  @Description("Statements the session factory prepared during the lookup, including those of "
+      + "any database work that overlapped it")
+  long queries;
+
+  @Label("Found")
+  boolean found;
+}
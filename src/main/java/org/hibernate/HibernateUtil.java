@@ -3,6 +3,9 @@ package org.hibernate;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import org.data.Charges;
 import org.data.Holiday;
 import org.data.Rental;
@@ -10,50 +13,224 @@ import org.data.Tool;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.metrics.Metrics;
 
+/**
+ * Owns the shared {@link SessionFactory} and binds at most one {@link Session} to each thread.
+ *
+ * <p>A unit of work runs through {@link #inSession} or {@link #inTransaction}: when the calling
+ * thread already has an open session the work joins it, otherwise a session is opened for the
+ * duration of the work and closed afterwards. {@link #getSession()} binds a long-lived session to
+ * the calling thread that stays open until {@link #closeSession()} or {@link Session#close()}.
+ * {@link #inNewSession} always runs in a separate session, so it only sees committed data.
+ *
+ * <p>The session factory is built by the first unit of work, or ahead of time on a background
+ * thread by {@link #startBootstrap()}. Settings are read from {@code hibernate-h2.properties} and
+ * any {@code hibernate.*} system property overrides them, for example
+ * {@code -Dhibernate.hbm2ddl.auto=none} to skip schema generation against an existing schema.
+ * Once built, the factory's {@link Statistics} are published as the {@code hibernate.*} metrics.
+ */
 public class HibernateUtil {
 
-  private static SessionFactory sessionFactory;
-  private static Session session;
+  private static volatile SessionFactory sessionFactory;
+  private static CompletableFuture<SessionFactory> bootstrap;
+  private static final ThreadLocal<Session> threadSession = new ThreadLocal<>();
 
-  private static synchronized SessionFactory getSessionFactory() {
-    if (sessionFactory == null) {
-      Configuration configuration = new Configuration();
-      InputStream inputStream = HibernateUtil.class.getClassLoader().
-          getResourceAsStream("hibernate-h2.properties");
-      Properties hibernateProperties = new Properties();
+  /**
+   * Starts building the session factory on a background thread and returns at once, so that the
+   * bootstrap overlaps with the rest of startup. Units of work that arrive before it is done wait
+   * for it instead of starting a second one.
+   */
+  public static CompletableFuture<Void> startBootstrap() {
+    CompletableFuture<SessionFactory> pending;
+    synchronized (HibernateUtil.class) {
+      pending = bootstrap;
+      if (pending == null) {
+        pending = new CompletableFuture<>();
+        bootstrap = pending;
+        CompletableFuture<SessionFactory> started = pending;
+        Thread thread = new Thread(() -> build(started), "hibernate-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+    return pending.thenApply(factory -> null);
+  }
 
-      try {
-        hibernateProperties.load(inputStream);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
+  private static SessionFactory getSessionFactory() {
+    SessionFactory factory = sessionFactory;
+    if (factory != null) {
+      return factory;
+    }
+
+    CompletableFuture<SessionFactory> pending;
+    boolean building = false;
+    synchronized (HibernateUtil.class) {
+      pending = bootstrap;
+      if (pending == null) {
+        pending = new CompletableFuture<>();
+        bootstrap = pending;
+        building = true;
       }
+    }
+    if (building) {
+      build(pending);
+    }
 
-      configuration.setProperties(hibernateProperties);
+    try {
+      return pending.join();
+    } catch (CompletionException ex) {
+      throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+    }
+  }
 
-      configuration.addAnnotatedClass(Holiday.class);
-      configuration.addAnnotatedClass(Tool.class);
-      configuration.addAnnotatedClass(Charges.class);
-      configuration.addAnnotatedClass(Rental.class);
+  private static void build(CompletableFuture<SessionFactory> pending) {
+    try {
+      SessionFactory factory = buildSessionFactory();
+      registerMetrics(factory.getStatistics());
+      sessionFactory = factory;
+      pending.complete(factory);
+    } catch (RuntimeException | Error ex) {
+      // A failed bootstrap is retried by the next unit of work.
+      synchronized (HibernateUtil.class) {
+        bootstrap = null;
+      }
+      pending.completeExceptionally(ex);
+    }
+  }
+
+  private static void registerMetrics(Statistics statistics) {
+    Metrics metrics = Metrics.getDefault();
+    metrics.gauge("hibernate.sessions.opened", statistics::getSessionOpenCount);
+    metrics.gauge("hibernate.transactions", statistics::getTransactionCount);
+    metrics.gauge("hibernate.statements.prepared", statistics::getPrepareStatementCount);
+    metrics.gauge("hibernate.queries.executed", statistics::getQueryExecutionCount);
+    metrics.gauge("hibernate.queries.maxTimeMillis", statistics::getQueryExecutionMaxTime);
+    metrics.gauge("hibernate.entities.loaded", statistics::getEntityLoadCount);
+    metrics.gauge("hibernate.entities.fetched", statistics::getEntityFetchCount);
+    metrics.gauge("hibernate.entities.inserted", statistics::getEntityInsertCount);
+    metrics.gauge("hibernate.secondLevelCache.hits", statistics::getSecondLevelCacheHitCount);
+    metrics.gauge("hibernate.secondLevelCache.misses", statistics::getSecondLevelCacheMissCount);
+    metrics.gauge("hibernate.secondLevelCache.puts", statistics::getSecondLevelCachePutCount);
+    metrics.gauge("hibernate.queryCache.hits", statistics::getQueryCacheHitCount);
+    metrics.gauge("hibernate.queryCache.misses", statistics::getQueryCacheMissCount);
+  }
 
-      ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().
-          applySettings(configuration.getProperties()).build();
+  private static SessionFactory buildSessionFactory() {
+    Configuration configuration = new Configuration();
+    InputStream inputStream = HibernateUtil.class.getClassLoader().
+        getResourceAsStream("hibernate-h2.properties");
+    Properties hibernateProperties = new Properties();
 
-      sessionFactory = configuration.buildSessionFactory(serviceRegistry);
-      return sessionFactory;
+    try {
+      hibernateProperties.load(inputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
-    return sessionFactory;
+    for (String name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith("hibernate.")) {
+        hibernateProperties.setProperty(name, System.getProperty(name));
+      }
+    }
+
+    configuration.setProperties(hibernateProperties);
+
+    configuration.addAnnotatedClass(Holiday.class);
+    configuration.addAnnotatedClass(Tool.class);
+    configuration.addAnnotatedClass(Charges.class);
+    configuration.addAnnotatedClass(Rental.class);
+
+    ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().
+        applySettings(configuration.getProperties()).build();
+
+    return configuration.buildSessionFactory(serviceRegistry);
   }
 
-  public static synchronized Session getSession() {
-    if(session == null || !session.isConnected()) {
-      try {
-        session = getSessionFactory().getCurrentSession();
-      } catch (HibernateException ex) {
-        session = getSessionFactory().openSession();
+  public static Statistics getStatistics() {
+    return getSessionFactory().getStatistics();
+  }
+
+  public static String getCacheStatisticsReport() {
+    Statistics statistics = getStatistics();
+    StringBuilder report = new StringBuilder();
+
+    for (String region : statistics.getSecondLevelCacheRegionNames()) {
+      CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+      if (regionStatistics != null) {
+        report.append(region)
+            .append(": hits=").append(regionStatistics.getHitCount())
+            .append(", misses=").append(regionStatistics.getMissCount())
+            .append(", puts=").append(regionStatistics.getPutCount())
+            .append(System.lineSeparator());
       }
     }
+    report.append("query cache: hits=").append(statistics.getQueryCacheHitCount())
+        .append(", misses=").append(statistics.getQueryCacheMissCount())
+        .append(", puts=").append(statistics.getQueryCachePutCount())
+        .append(", database queries=").append(statistics.getQueryExecutionCount());
+
+    return report.toString();
+  }
+
+  public static Session getSession() {
+    Session session = threadSession.get();
+    if (session == null || !session.isOpen()) {
+      session = getSessionFactory().openSession();
+      threadSession.set(session);
+    }
 
     return session;
   }
+
+  public static void closeSession() {
+    Session session = threadSession.get();
+    threadSession.remove();
+    if (session != null && session.isOpen()) {
+      session.close();
+    }
+  }
+
+  public static <T> T inSession(Function<Session, T> work) {
+    Session session = threadSession.get();
+    if (session != null && session.isOpen()) {
+      return work.apply(session);
+    }
+
+    session = getSessionFactory().openSession();
+    threadSession.set(session);
+    try {
+      return work.apply(session);
+    } finally {
+      threadSession.remove();
+      session.close();
+    }
+  }
+
+  public static <T> T inNewSession(Function<Session, T> work) {
+    try (Session session = getSessionFactory().openSession()) {
+      return work.apply(session);
+    }
+  }
+
+  public static <T> T inTransaction(Function<Session, T> work) {
+    return inSession(session -> {
+      if (session.getTransaction().isActive()) {
+        return work.apply(session);
+      }
+
+      Transaction transaction = session.beginTransaction();
+      try {
+        T result = work.apply(session);
+        transaction.commit();
+        return result;
+      } catch (RuntimeException ex) {
+        if (transaction.isActive()) {
+          transaction.rollback();
+        }
+        throw ex;
+      }
+    });
+  }
 }
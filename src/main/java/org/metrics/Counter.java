@@ -0,0 +1,28 @@
+package org.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up. Concurrent increments do not contend.
+ */
+public final class Counter implements CounterMXBean {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter() {
+
+  }
+
+  public void increment() {
+    count.increment();
+  }
+
+  public void add(long amount) {
+    count.add(amount);
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+}
@@ -0,0 +1,6 @@
+package org.metrics;
+
+public interface CounterMXBean {
+
+  long getCount();
+}
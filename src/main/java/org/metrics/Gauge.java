@@ -0,0 +1,24 @@
+package org.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value read from its source every time it is published.
+ */
+public final class Gauge implements GaugeMXBean {
+
+  private volatile DoubleSupplier source;
+
+  Gauge(DoubleSupplier source) {
+    this.source = source;
+  }
+
+  void setSource(DoubleSupplier source) {
+    this.source = source;
+  }
+
+  @Override
+  public double getValue() {
+    return source.getAsDouble();
+  }
+}
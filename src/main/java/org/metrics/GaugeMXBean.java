@@ -0,0 +1,6 @@
+package org.metrics;
+
+public interface GaugeMXBean {
+
+  double getValue();
+}
@@ -0,0 +1,129 @@
+package org.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram over log-linear buckets: every power of two is split into eight buckets, so a
+ * percentile is within 12.5% of the true value while the whole range of {@code long} nanoseconds
+ * fits in a fixed 488 counts. Recording is lock-free and allocates nothing.
+ */
+public final class Histogram implements HistogramMXBean {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+  private static final int BUCKETS = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  Histogram() {
+
+  }
+
+  /**
+   * Returns a start time for {@link #recordSince}.
+   */
+  public static long start() {
+    return System.nanoTime();
+  }
+
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets.incrementAndGet(bucketOf(value));
+    count.increment();
+    total.add(value);
+    long previous = max.get();
+    while (value > previous && !max.compareAndSet(previous, value)) {
+      previous = max.get();
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : toMicros(total.sum()) / n;
+  }
+
+  @Override
+  public double getMax() {
+    return toMicros(max.get());
+  }
+
+  @Override
+  public double get50thPercentile() {
+    return toMicros(percentile(0.5));
+  }
+
+  @Override
+  public double get99thPercentile() {
+    return toMicros(percentile(0.99));
+  }
+
+  @Override
+  public double get999thPercentile() {
+    return toMicros(percentile(0.999));
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding the given quantile, in nanoseconds, capped by
+   * the largest value recorded.
+   */
+  long percentile(double quantile) {
+    long[] counts = new long[BUCKETS];
+    long recorded = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      recorded += counts[i];
+    }
+    if (recorded == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  static int bucketOf(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBound(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+  }
+
+  private static double toMicros(long nanos) {
+    return nanos / 1_000.0;
+  }
+}
@@ -0,0 +1,19 @@
+package org.metrics;
+
+/**
+ * A latency distribution. Every time is in microseconds.
+ */
+public interface HistogramMXBean {
+
+  long getCount();
+
+  double getMean();
+
+  double getMax();
+
+  double get50thPercentile();
+
+  double get99thPercentile();
+
+  double get999thPercentile();
+}
@@ -0,0 +1,84 @@
+package org.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of named counters, gauges and latency histograms. Every metric is published as an
+ * MXBean named {@code org.checkout:type=<Counter|Gauge|Histogram>,name=<name>}, so it can be read
+ * with JConsole, VisualVM or any JMX client while the service runs.
+ *
+ * <p>Metrics are created on first use and the same instance is returned for the same name after
+ * that, so callers hold on to the metric rather than looking it up on every update.
+ */
+public final class Metrics {
+
+  public static final String DOMAIN = "org.checkout";
+
+  private static final Metrics DEFAULT = new Metrics(ManagementFactory.getPlatformMBeanServer());
+
+  private final MBeanServer server;
+  private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  Metrics(MBeanServer server) {
+    this.server = server;
+  }
+
+  public static Metrics getDefault() {
+    return DEFAULT;
+  }
+
+  public Counter counter(String name) {
+    return counters.computeIfAbsent(name, key -> register("Counter", key, new Counter()));
+  }
+
+  public Histogram histogram(String name) {
+    return histograms.computeIfAbsent(name, key -> register("Histogram", key, new Histogram()));
+  }
+
+  /**
+   * Publishes the value of {@code source} under the given name. A gauge that is registered again
+   * reads from the new source.
+   */
+  public Gauge gauge(String name, DoubleSupplier source) {
+    Gauge gauge = gauges.computeIfAbsent(name, key -> register("Gauge", key, new Gauge(source)));
+    gauge.setSource(source);
+    return gauge;
+  }
+
+  /**
+   * Publishes {@code part / (part + rest)}, or 0 while both are 0, for example a cache hit ratio
+   * from its hits and misses.
+   */
+  public Gauge ratio(String name, Counter part, Counter rest) {
+    return gauge(name, () -> {
+      long numerator = part.getCount();
+      long denominator = numerator + rest.getCount();
+      return denominator == 0 ? 0 : (double) numerator / denominator;
+    });
+  }
+
+  public static ObjectName objectName(String type, String name) throws JMException {
+    return new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+  }
+
+  private <T> T register(String type, String name, T metric) {
+    try {
+      ObjectName objectName = objectName(type, name);
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(metric, objectName);
+    } catch (JMException ex) {
+      // The metric still counts; it is only missing from JMX.
+      ex.printStackTrace();
+    }
+    return metric;
+  }
+}
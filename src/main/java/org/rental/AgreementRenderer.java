@@ -0,0 +1,230 @@
+package org.rental;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
+
+/**
+ * Renders {@link RentalAgreement} reports without building intermediate strings. A report is
+ * written field by field into a caller-supplied {@link Appendable} or {@link ByteBuffer}, or
+ * streamed for a whole batch of agreements into a channel through one reusable buffer.
+ *
+ * <p>Renderers are immutable and cached per locale, so one renderer can be shared by every thread.
+ */
+public final class AgreementRenderer {
+
+  private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+  private static final ConcurrentHashMap<Locale, AgreementRenderer> renderers =
+      new ConcurrentHashMap<>();
+  private static final Histogram RENDER_TIME =
+      Metrics.getDefault().histogram("checkout.render.text");
+
+  private final CurrencyFormat currencyFormat;
+
+  private AgreementRenderer(Locale locale) {
+    this.currencyFormat = new CurrencyFormat(locale);
+  }
+
+  public static AgreementRenderer getDefault() {
+    return forLocale(Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  public static AgreementRenderer forLocale(Locale locale) {
+    return renderers.computeIfAbsent(locale, AgreementRenderer::new);
+  }
+
+  public String formatPrice(BigDecimal amount) {
+    return currencyFormat.format(amount);
+  }
+
+  public String render(RentalAgreement agreement) {
+    StringBuilder out = new StringBuilder(320);
+    try {
+      render(agreement, out);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return out.toString();
+  }
+
+  public void render(RentalAgreement agreement, Appendable out) throws IOException {
+    // Priced before the clock starts, so the render time holds only the rendering.
+    agreement.getQuote();
+    RenderEvent event = new RenderEvent();
+    event.begin();
+    long start = Histogram.start();
+    out.append("Tool code: ").append(agreement.getToolCode()).append("/n");
+    out.append("Tool type: ").append(agreement.getToolType()).append("/n");
+    out.append("Tool brand: ").append(agreement.getBrand()).append("/n");
+    out.append("Rental days: ");
+    appendInt(agreement.getNumberDays(), out).append("/n");
+    out.append("Check out date: ");
+    appendDate(agreement.getCheckoutDate(), out).append("/n");
+    out.append("Due date: ");
+    appendDate(agreement.getDueDate(), out).append("/n");
+    out.append("Daily rental charge: ");
+    currencyFormat.format(agreement.getDailyCharge(), out);
+    out.append("/n").append("Charge Days: ");
+    appendInt(agreement.getChargeDays(), out).append("/n");
+    out.append("Pre-discount charge: ");
+    currencyFormat.format(agreement.getPreDiscountCharge(), out);
+    out.append("/n").append("Discount percent: ");
+    appendInt(agreement.getDiscountPercent(), out).append('%').append("/n");
+    out.append("Discount amount: ");
+    currencyFormat.format(agreement.getDiscountAmount(), out);
+    out.append("/n").append("Final charge: ");
+    currencyFormat.format(agreement.getTotal(), out);
+    RENDER_TIME.recordSince(start);
+
+    if (event.shouldCommit()) {
+      event.toolCode = agreement.getToolCode();
+      event.days = agreement.getNumberDays();
+      event.commit();
+    }
+  }
+
+  /**
+   * Writes the report into the buffer as UTF-8. If it does not fit, the buffer's position is left
+   * unchanged and a {@link BufferOverflowException} is thrown.
+   */
+  public void render(RentalAgreement agreement, ByteBuffer out) {
+    int start = out.position();
+    try {
+      render(agreement, new Utf8Appender(out));
+    } catch (BufferOverflowException ex) {
+      out.position(start);
+      throw ex;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Writes every report, each followed by a line separator, to the channel and returns the number
+   * of bytes written.
+   */
+  public long renderAll(Iterable<RentalAgreement> agreements, WritableByteChannel channel)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE);
+    Utf8Appender appender = new Utf8Appender(buffer);
+    String lineSeparator = System.lineSeparator();
+    long written = 0;
+
+    for (RentalAgreement agreement : agreements) {
+      int start = buffer.position();
+      try {
+        render(agreement, appender);
+        appender.append(lineSeparator);
+      } catch (BufferOverflowException ex) {
+        buffer.position(start);
+        written += drain(buffer, channel);
+        render(agreement, appender);
+        appender.append(lineSeparator);
+      }
+    }
+
+    return written + drain(buffer, channel);
+  }
+
+  private static long drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+    buffer.flip();
+    long written = 0;
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer);
+    }
+    buffer.clear();
+    return written;
+  }
+
+  private static Appendable appendDate(LocalDate date, Appendable out) throws IOException {
+    // Same output as the MM/dd/yy pattern.
+    appendTwoDigits(date.getMonthValue(), out).append('/');
+    appendTwoDigits(date.getDayOfMonth(), out).append('/');
+    return appendTwoDigits(Math.floorMod(date.getYear(), 100), out);
+  }
+
+  private static Appendable appendTwoDigits(int value, Appendable out) throws IOException {
+    return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+
+  private static Appendable appendInt(int value, Appendable out) throws IOException {
+    if (value < 0) {
+      if (value == Integer.MIN_VALUE) {
+        return out.append(Integer.toString(value));
+      }
+      out.append('-');
+      value = -value;
+    }
+
+    int divisor = 1;
+    while (value / divisor >= 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      out.append((char) ('0' + value / divisor % 10));
+    }
+    return out;
+  }
+
+  /**
+   * Encodes characters straight into a {@link ByteBuffer} as UTF-8. Throws
+   * {@link BufferOverflowException} when the buffer is full.
+   */
+  private static final class Utf8Appender implements Appendable {
+
+    private final ByteBuffer buffer;
+    private char highSurrogate;
+
+    private Utf8Appender(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      return csq == null ? append("null") : append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      if (csq == null) {
+        return append("null", start, end);
+      }
+      for (int i = start; i < end; i++) {
+        append(csq.charAt(i));
+      }
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+      } else if (Character.isHighSurrogate(c)) {
+        highSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        if (highSurrogate == 0) {
+          buffer.put((byte) '?');
+          return this;
+        }
+        int codePoint = Character.toCodePoint(highSurrogate, c);
+        highSurrogate = 0;
+        buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+            .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+      } else {
+        buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F))
+            .put((byte) (0x80 | c & 0x3F));
+      }
+      return this;
+    }
+  }
+}
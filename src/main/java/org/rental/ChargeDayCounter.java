@@ -0,0 +1,69 @@
+package org.rental;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import org.data.Charges;
+import org.data.HolidayCalendar;
+
+/**
+ * Counts the chargeable days in [checkout, checkout + days) without walking the rental day by
+ * day: weekdays and weekend days come from whole weeks plus a remainder of at most six days, and
+ * holidays come from the calendar's per-year bitmaps.
+ */
+public final class ChargeDayCounter {
+
+  private ChargeDayCounter() {
+
+  }
+
+  public static int countChargeDays(Charges charges, LocalDate checkoutDate, int days) {
+    return countChargeDays(charges, checkoutDate, days, HolidayCalendar.getDefault());
+  }
+
+  public static int countChargeDays(Charges charges, LocalDate checkoutDate, int days,
+      HolidayCalendar calendar) {
+    return countChargeDays(charges.isWeekdayCharge(), charges.isWeekendCharge(),
+        charges.isHolidayCharge(), checkoutDate, days, calendar);
+  }
+
+  public static int countChargeDays(boolean weekdayCharge, boolean weekendCharge,
+      boolean holidayCharge, LocalDate checkoutDate, int days, HolidayCalendar calendar) {
+    if (days <= 0 || (!weekdayCharge && !weekendCharge)) {
+      return 0;
+    }
+
+    int weekendDays = countWeekendDays(checkoutDate.getDayOfWeek(), days);
+    int weekdays = days - weekendDays;
+    LocalDate dueDate = checkoutDate.plusDays(days);
+
+    int chargeDays = 0;
+    if (weekdayCharge) {
+      chargeDays += weekdays;
+      if (!holidayCharge) {
+        chargeDays -= calendar.countHolidays(checkoutDate, dueDate, false);
+      }
+    }
+    if (weekendCharge) {
+      chargeDays += weekendDays;
+      if (!holidayCharge) {
+        chargeDays -= calendar.countHolidays(checkoutDate, dueDate, true);
+      }
+    }
+
+    return chargeDays;
+  }
+
+  static int countWeekendDays(DayOfWeek firstDay, int days) {
+    int weekendDays = (days / 7) * 2;
+    int day = firstDay.getValue() - 1;
+
+    for (int i = days % 7; i > 0; i--) {
+      if (day >= 5) {
+        weekendDays++;
+      }
+      day = day == 6 ? 0 : day + 1;
+    }
+
+    return weekendDays;
+  }
+}
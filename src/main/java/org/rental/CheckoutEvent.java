@@ -0,0 +1,28 @@
+package org.rental;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.checkout.Checkout")
+@Label("Checkout")
+@Category({"Checkout"})
+@Description("RentalTransaction.Checkout, from validation to the priced agreement")
+@StackTrace(false)
+final class CheckoutEvent extends Event {
+
+  @Label("Tool Code")
+  String toolCode;
+
+  @Label("Rental Days")
+  int days;
+
+  @Label("Discount Percent")
+  int discountPercent;
+
+  @Label("Holiday Calendar")
+  String calendar;
+}
@@ -0,0 +1,12 @@
+package org.rental;
+
+/**
+ * A checkout or quote that is refused because of what was asked for, such as an invalid number
+ * of days or a tool that is already checked out, rather than because something failed.
+ */
+public class CheckoutException extends RuntimeException {
+
+  public CheckoutException(String message) {
+    super(message);
+  }
+}
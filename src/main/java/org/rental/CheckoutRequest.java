@@ -0,0 +1,45 @@
+package org.rental;
+
+import java.time.LocalDate;
+
+public class CheckoutRequest {
+
+  private final String toolCode;
+  private final int numDays;
+  private final int discount;
+  private final LocalDate date;
+  private final String calendar;
+
+  public CheckoutRequest(String toolCode, int numDays, int discount, LocalDate date) {
+    this(toolCode, numDays, discount, date, null);
+  }
+
+  public CheckoutRequest(String toolCode, int numDays, int discount, LocalDate date,
+      String calendar) {
+    this.toolCode = toolCode;
+    this.numDays = numDays;
+    this.discount = discount;
+    this.date = date;
+    this.calendar = calendar;
+  }
+
+  public String getToolCode() {
+    return toolCode;
+  }
+
+  public int getNumDays() {
+    return numDays;
+  }
+
+  public int getDiscount() {
+    return discount;
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  public String getCalendar() {
+    return calendar;
+  }
+}
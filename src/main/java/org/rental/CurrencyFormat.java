@@ -0,0 +1,119 @@
+package org.rental;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Immutable, thread-safe equivalent of {@link NumberFormat#getCurrencyInstance(Locale)}. The
+ * prefixes, separators and grouping of the locale's currency format are read once, and amounts are
+ * written digit by digit into an {@link Appendable}. Locales whose currency format cannot be
+ * reproduced that way are formatted with a clone of the locale's {@link NumberFormat}.
+ */
+final class CurrencyFormat {
+
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final NumberFormat prototype;
+  private final boolean direct;
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  private final char zeroDigit;
+  private final char groupingSeparator;
+  private final char decimalSeparator;
+  private final int groupingSize;
+  private final int fractionDigits;
+  private final RoundingMode roundingMode;
+
+  CurrencyFormat(Locale locale) {
+    this.prototype = NumberFormat.getCurrencyInstance(locale);
+
+    if (prototype instanceof DecimalFormat) {
+      DecimalFormat format = (DecimalFormat) prototype;
+      DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+      this.direct = format.getMinimumFractionDigits() == format.getMaximumFractionDigits()
+          && format.getMaximumFractionDigits() < POWERS_OF_TEN.length - 1
+          && format.getMinimumIntegerDigits() == 1
+          && format.getMultiplier() == 1
+          && !format.isDecimalSeparatorAlwaysShown();
+      this.positivePrefix = format.getPositivePrefix();
+      this.positiveSuffix = format.getPositiveSuffix();
+      this.negativePrefix = format.getNegativePrefix();
+      this.negativeSuffix = format.getNegativeSuffix();
+      this.zeroDigit = symbols.getZeroDigit();
+      this.groupingSeparator = symbols.getMonetaryGroupingSeparator();
+      this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+      this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+      this.fractionDigits = format.getMaximumFractionDigits();
+      this.roundingMode = format.getRoundingMode();
+    } else {
+      this.direct = false;
+      this.positivePrefix = null;
+      this.positiveSuffix = null;
+      this.negativePrefix = null;
+      this.negativeSuffix = null;
+      this.zeroDigit = '0';
+      this.groupingSeparator = ',';
+      this.decimalSeparator = '.';
+      this.groupingSize = 0;
+      this.fractionDigits = 0;
+      this.roundingMode = RoundingMode.HALF_EVEN;
+    }
+  }
+
+  String format(BigDecimal amount) {
+    StringBuilder out = new StringBuilder(16);
+    try {
+      format(amount, out);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    return out.toString();
+  }
+
+  void format(BigDecimal amount, Appendable out) throws IOException {
+    BigDecimal rounded = direct ? amount.setScale(fractionDigits, roundingMode) : null;
+    if (rounded == null || rounded.unscaledValue().bitLength() > 62) {
+      out.append(((NumberFormat) prototype.clone()).format(amount));
+      return;
+    }
+
+    long value = rounded.unscaledValue().longValue();
+    boolean negative = amount.signum() < 0;
+    out.append(negative ? negativePrefix : positivePrefix);
+    appendDigits(Math.abs(value), out);
+    out.append(negative ? negativeSuffix : positiveSuffix);
+  }
+
+  private void appendDigits(long value, Appendable out) throws IOException {
+    int digitCount = 1;
+    while (digitCount < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digitCount]) {
+      digitCount++;
+    }
+    int totalDigits = Math.max(digitCount, fractionDigits + 1);
+    int integerDigits = totalDigits - fractionDigits;
+
+    for (int i = 0; i < totalDigits; i++) {
+      if (i == integerDigits) {
+        out.append(decimalSeparator);
+      } else if (i > 0 && i < integerDigits && groupingSize > 0
+          && (integerDigits - i) % groupingSize == 0) {
+        out.append(groupingSeparator);
+      }
+      out.append((char) (zeroDigit + value / POWERS_OF_TEN[totalDigits - 1 - i] % 10));
+    }
+  }
+}
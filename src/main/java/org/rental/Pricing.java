@@ -0,0 +1,59 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rental pricing arithmetic. Daily rates held in whole cents are priced entirely in {@code long}
+ * cents; any other rate is priced in {@link BigDecimal}. Both paths follow the same rules, so they
+ * give the same amounts for the same inputs:
+ *
+ * <ul>
+ *   <li>pre-discount charge = daily rate &times; charge days, exactly;</li>
+ *   <li>discount amount = pre-discount charge &times; discount percent / 100, rounded half-up to
+ *   the cent;</li>
+ *   <li>final charge = pre-discount charge &minus; discount amount, exactly.</li>
+ * </ul>
+ */
+public final class Pricing {
+
+  private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+  private Pricing() {
+
+  }
+
+  public static boolean isWholeCents(BigDecimal amount) {
+    return amount.scale() <= 2 || amount.stripTrailingZeros().scale() <= 2;
+  }
+
+  /**
+   * Converts an amount to cents, rounding half-even like the printed report when the amount is
+   * not a whole number of cents.
+   */
+  public static long toCents(BigDecimal amount) {
+    return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toAmount(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  public static long preDiscountCents(long dailyRateCents, int chargeDays) {
+    return Math.multiplyExact(dailyRateCents, chargeDays);
+  }
+
+  public static long discountCents(long preDiscountCents, int discountPercent) {
+    long scaled = Math.multiplyExact(preDiscountCents, discountPercent);
+    return scaled >= 0 ? (scaled + 50) / 100 : -((-scaled + 50) / 100);
+  }
+
+  public static BigDecimal preDiscountCharge(BigDecimal dailyRate, int chargeDays) {
+    return dailyRate.multiply(BigDecimal.valueOf(chargeDays));
+  }
+
+  public static BigDecimal discount(BigDecimal preDiscountCharge, int discountPercent) {
+    return preDiscountCharge.multiply(BigDecimal.valueOf(discountPercent))
+        .divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
+  }
+}
@@ -0,0 +1,37 @@
+package org.rental;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.checkout.Pricing")
+@Label("Pricing")
+@Category({"Checkout"})
+@Description("A quote served from the quote cache or priced by counting its charge days")
+@StackTrace(false)
+final class PricingEvent extends Event {
+
+  @Label("Tool Type")
+  String toolType;
+
+  @Label("Checkout Date")
+  String checkoutDate;
+
+  @Label("Rental Days")
+  int days;
+
+  @Label("Discount Percent")
+  int discountPercent;
+
+  @Label("Holiday Calendar")
+  String calendar;
+
+  @Label("Charge Days")
+  int chargeDays;
+
+  @Label("Quote Cache Hit")
+  boolean cacheHit;
+}
@@ -0,0 +1,106 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable price of renting one tool type. Whole-cent rates are priced in {@code long} cents and
+ * other rates in {@link BigDecimal}, exactly as {@link RentalAgreement} prices them.
+ */
+public final class Quote {
+
+  private final RateSnapshot rate;
+  private final LocalDate checkoutDate;
+  private final int days;
+  private final int discountPercent;
+  private final int chargeDays;
+  private final boolean pricedInCents;
+  private final long preDiscountCents;
+  private final long discountCents;
+  private final long totalCents;
+  private final BigDecimal preDiscountCharge;
+  private final BigDecimal discountAmount;
+  private final BigDecimal total;
+
+  Quote(RateSnapshot rate, LocalDate checkoutDate, int days, int discountPercent,
+      int chargeDays) {
+    this.rate = rate;
+    this.checkoutDate = checkoutDate;
+    this.days = days;
+    this.discountPercent = discountPercent;
+    this.chargeDays = chargeDays;
+    this.pricedInCents = rate.isWholeCents();
+
+    if (pricedInCents) {
+      preDiscountCents = Pricing.preDiscountCents(rate.getDailyRateCents(), chargeDays);
+      discountCents = Pricing.discountCents(preDiscountCents, discountPercent);
+      totalCents = preDiscountCents - discountCents;
+      preDiscountCharge = null;
+      discountAmount = null;
+      total = null;
+    } else {
+      preDiscountCharge = Pricing.preDiscountCharge(rate.getDailyRate(), chargeDays);
+      discountAmount = Pricing.discount(preDiscountCharge, discountPercent);
+      total = preDiscountCharge.subtract(discountAmount);
+      preDiscountCents = Pricing.toCents(preDiscountCharge);
+      discountCents = Pricing.toCents(discountAmount);
+      totalCents = Pricing.toCents(total);
+    }
+  }
+
+  public RateSnapshot getRate() {
+    return rate;
+  }
+
+  public String getToolType() {
+    return rate.getToolType();
+  }
+
+  public BigDecimal getDailyCharge() {
+    return rate.getDailyRate();
+  }
+
+  public LocalDate getCheckoutDate() {
+    return checkoutDate;
+  }
+
+  public int getNumberDays() {
+    return days;
+  }
+
+  public LocalDate getDueDate() {
+    return checkoutDate.plusDays(days);
+  }
+
+  public int getDiscountPercent() {
+    return discountPercent;
+  }
+
+  public int getChargeDays() {
+    return chargeDays;
+  }
+
+  public BigDecimal getPreDiscountCharge() {
+    return pricedInCents ? Pricing.toAmount(preDiscountCents) : preDiscountCharge;
+  }
+
+  public long getPreDiscountCents() {
+    return preDiscountCents;
+  }
+
+  public BigDecimal getDiscountAmount() {
+    return pricedInCents ? Pricing.toAmount(discountCents) : discountAmount;
+  }
+
+  public long getDiscountCents() {
+    return discountCents;
+  }
+
+  public BigDecimal getTotal() {
+    return pricedInCents ? Pricing.toAmount(totalCents) : total;
+  }
+
+  public long getTotalCents() {
+    return totalCents;
+  }
+}
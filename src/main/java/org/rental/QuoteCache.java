@@ -0,0 +1,304 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.data.HolidayCalendar;
+import org.data.HolidayRuleRepository;
+import org.data.HolidayRuleSet;
+import org.data.ToolCatalog;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
+
+/**
+ * Bounded cache of {@link Quote}s keyed by their pricing inputs: the tool type and its rates, the
+ * checkout date, the number of days, the discount and the holiday calendar. The keys are spread
+ * over lock-striped LRU maps, each holding at most its share of the capacity, and entries expire
+ * after the time to live.
+ *
+ * <p>Every entry belongs to one generation: the {@link ToolCatalog} version and the
+ * {@link HolidayRuleSet} published when it was priced. A new catalog or rule set empties the
+ * cache. Quotes priced while no holiday rules are loaded are not cached.
+ *
+ * <p>The default cache is sized by the {@code quote.cacheSize} system property and its time to
+ * live is {@code quote.cacheTtl} milliseconds. Its counts are published as the
+ * {@code quote.cache.*} metrics, and every quote is recorded as an {@code org.checkout.Pricing}
+ * flight recorder event.
+ */
+public final class QuoteCache {
+
+  private static final int STRIPES = 16;
+  private static final QuoteCache DEFAULT = new QuoteCache(
+      Integer.getInteger("quote.cacheSize", 10_000),
+      Duration.ofMillis(Long.getLong("quote.cacheTtl", 60_000)));
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final long timeToLiveNanos;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private volatile Generation generation = new Generation(-1, null);
+
+  static {
+    Metrics metrics = Metrics.getDefault();
+    metrics.gauge("quote.cache.hits", DEFAULT::getHitCount);
+    metrics.gauge("quote.cache.misses", DEFAULT::getMissCount);
+    metrics.gauge("quote.cache.evictions", DEFAULT::getEvictionCount);
+    metrics.gauge("quote.cache.size", DEFAULT::size);
+    metrics.gauge("quote.cache.hitRatio", () -> {
+      long hits = DEFAULT.getHitCount();
+      long lookups = hits + DEFAULT.getMissCount();
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    });
+  }
+
+  public QuoteCache(int capacity, Duration timeToLive) {
+    int stripeCapacity = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(stripeCapacity);
+    }
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  public static QuoteCache getDefault() {
+    return DEFAULT;
+  }
+
+  public Quote quote(RateSnapshot rate, int days, int discountPercent, LocalDate checkoutDate,
+      HolidayCalendar calendar) {
+    return quote(rate, days, discountPercent, checkoutDate, calendar, null, null);
+  }
+
+  /**
+   * Returns the quote, timing a miss's pricing phases in the given histograms unless they are
+   * null.
+   */
+  Quote quote(RateSnapshot rate, int days, int discountPercent, LocalDate checkoutDate,
+      HolidayCalendar calendar, Histogram chargeDaysTime, Histogram pricingTime) {
+    PricingEvent event = new PricingEvent();
+    event.begin();
+    Generation current = currentGeneration();
+    Key key = new Key(rate, checkoutDate, days, discountPercent, calendar.getName());
+    Stripe stripe = stripes[(key.hash ^ (key.hash >>> 16)) & (STRIPES - 1)];
+
+    long now = System.nanoTime();
+    Quote cached = stripe.get(key, now);
+    if (cached != null) {
+      hits.increment();
+      commit(event, cached, calendar, true);
+      return cached;
+    }
+
+    misses.increment();
+    Quote quote = QuoteEngine.price(rate, days, discountPercent, checkoutDate, calendar,
+        chargeDaysTime, pricingTime);
+    // A quote priced across a generation change may be stale, so only the generation it was
+    // priced in keeps it.
+    if (!current.rules.isEmpty() && current == currentGeneration()) {
+      stripe.put(key, quote, now + timeToLiveNanos, current);
+    }
+    commit(event, quote, calendar, false);
+    return quote;
+  }
+
+  private static void commit(PricingEvent event, Quote quote, HolidayCalendar calendar,
+      boolean cacheHit) {
+    if (event.shouldCommit()) {
+      event.toolType = quote.getToolType();
+      event.checkoutDate = quote.getCheckoutDate().toString();
+      event.days = quote.getNumberDays();
+      event.discountPercent = quote.getDiscountPercent();
+      event.calendar = calendar.getName();
+      event.chargeDays = quote.getChargeDays();
+      event.cacheHit = cacheHit;
+      event.commit();
+    }
+  }
+
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  private Generation currentGeneration() {
+    Generation current = generation;
+    long catalogVersion = ToolCatalog.currentVersion();
+    HolidayRuleSet rules = HolidayRuleRepository.getDefault().latest();
+    if (current.catalogVersion == catalogVersion && current.rules == rules) {
+      return current;
+    }
+
+    synchronized (this) {
+      current = generation;
+      if (current.catalogVersion != catalogVersion || current.rules != rules) {
+        current = new Generation(catalogVersion, rules);
+        generation = current;
+        clear();
+      }
+      return current;
+    }
+  }
+
+  private static final class Generation {
+
+    private final long catalogVersion;
+    private final HolidayRuleSet rules;
+
+    private Generation(long catalogVersion, HolidayRuleSet rules) {
+      this.catalogVersion = catalogVersion;
+      this.rules = rules;
+    }
+  }
+
+  private final class Stripe {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private Stripe(int capacity) {
+      this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+          if (size() > capacity) {
+            evictions.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    private Quote get(Key key, long now) {
+      lock.lock();
+      try {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+          return null;
+        }
+        if (now - entry.expiresAt >= 0) {
+          entries.remove(key);
+          return null;
+        }
+        return entry.quote;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void put(Key key, Quote quote, long expiresAt, Generation pricedIn) {
+      lock.lock();
+      try {
+        if (generation == pricedIn) {
+          entries.put(key, new Entry(quote, expiresAt));
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void clear() {
+      lock.lock();
+      try {
+        entries.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int size() {
+      lock.lock();
+      try {
+        return entries.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final Quote quote;
+    private final long expiresAt;
+
+    private Entry(Quote quote, long expiresAt) {
+      this.quote = quote;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static final class Key {
+
+    private final String toolType;
+    private final BigDecimal dailyRate;
+    private final int charges;
+    private final long checkoutDay;
+    private final int days;
+    private final int discountPercent;
+    private final String calendar;
+    private final int hash;
+
+    private Key(RateSnapshot rate, LocalDate checkoutDate, int days, int discountPercent,
+        String calendar) {
+      this.toolType = rate.getToolType();
+      this.dailyRate = rate.getDailyRate();
+      this.charges = (rate.isWeekdayCharge() ? 1 : 0) | (rate.isWeekendCharge() ? 2 : 0)
+          | (rate.isHolidayCharge() ? 4 : 0);
+      this.checkoutDay = checkoutDate.toEpochDay();
+      this.days = days;
+      this.discountPercent = discountPercent;
+      this.calendar = calendar;
+
+      int h = toolType == null ? 0 : toolType.hashCode();
+      h = 31 * h + Long.hashCode(checkoutDay);
+      h = 31 * h + days;
+      h = 31 * h + discountPercent;
+      h = 31 * h + calendar.hashCode();
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hash == other.hash && checkoutDay == other.checkoutDay && days == other.days
+          && discountPercent == other.discountPercent && charges == other.charges
+          && calendar.equals(other.calendar) && dailyRate.equals(other.dailyRate)
+          && (toolType == null ? other.toolType == null : toolType.equals(other.toolType));
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
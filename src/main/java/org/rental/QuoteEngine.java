@@ -0,0 +1,66 @@
+package org.rental;
+
+import java.time.LocalDate;
+import org.data.HolidayCalendar;
+import org.metrics.Histogram;
+
+/**
+ * Prices rentals from a {@link RateSnapshot} without a Hibernate session or any entity. Holidays
+ * come from an in-memory view of a {@link HolidayCalendar}, so a quote never waits on the
+ * database once the holiday rules are loaded, as the service does at startup. If they have not
+ * been, the first quote loads them.
+ * {@link RentalAgreement} prices through the same code, so a quote and the agreement for the same
+ * rental agree to the cent. Repeated quotes are served from the {@link QuoteCache}.
+ */
+public final class QuoteEngine {
+
+  private static final QuoteEngine DEFAULT =
+      new QuoteEngine(HolidayCalendar.inMemory(HolidayCalendar.DEFAULT_NAME));
+
+  private final HolidayCalendar calendar;
+
+  public QuoteEngine(HolidayCalendar calendar) {
+    this.calendar = calendar;
+  }
+
+  public static QuoteEngine getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the engine for the named holiday calendar, or the default engine when the name is
+   * null.
+   */
+  public static QuoteEngine forCalendar(String name) {
+    return name == null ? DEFAULT : new QuoteEngine(HolidayCalendar.inMemory(name));
+  }
+
+  public Quote quote(RateSnapshot rate, int days, int discountPercent, LocalDate checkoutDate)
+      throws RuntimeException {
+    RentalTransaction.validate(days, discountPercent);
+    return QuoteCache.getDefault().quote(rate, days, discountPercent, checkoutDate, calendar);
+  }
+
+  static Quote price(RateSnapshot rate, int days, int discountPercent, LocalDate checkoutDate,
+      HolidayCalendar calendar) {
+    return price(rate, days, discountPercent, checkoutDate, calendar, null, null);
+  }
+
+  /**
+   * Prices a rental, recording the time spent counting charge days and pricing in the given
+   * histograms unless they are null.
+   */
+  static Quote price(RateSnapshot rate, int days, int discountPercent, LocalDate checkoutDate,
+      HolidayCalendar calendar, Histogram chargeDaysTime, Histogram pricingTime) {
+    long start = Histogram.start();
+    int chargeDays = ChargeDayCounter.countChargeDays(rate.isWeekdayCharge(),
+        rate.isWeekendCharge(), rate.isHolidayCharge(), checkoutDate, days, calendar);
+    long counted = Histogram.start();
+    Quote quote = new Quote(rate, checkoutDate, days, discountPercent, chargeDays);
+    if (chargeDaysTime != null) {
+      chargeDaysTime.record(counted - start);
+      pricingTime.recordSince(counted);
+    }
+    return quote;
+  }
+}
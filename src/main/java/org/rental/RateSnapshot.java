@@ -0,0 +1,63 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import org.data.Charges;
+
+/**
+ * Immutable copy of a tool type's charges, detached from the {@link Charges} entity so that it can
+ * be priced without a session.
+ */
+public final class RateSnapshot {
+
+  private final String toolType;
+  private final BigDecimal dailyRate;
+  private final boolean weekdayCharge;
+  private final boolean weekendCharge;
+  private final boolean holidayCharge;
+  private final boolean wholeCents;
+  private final long dailyRateCents;
+
+  public RateSnapshot(String toolType, BigDecimal dailyRate, boolean weekdayCharge,
+      boolean weekendCharge, boolean holidayCharge) {
+    this.toolType = toolType;
+    this.dailyRate = dailyRate;
+    this.weekdayCharge = weekdayCharge;
+    this.weekendCharge = weekendCharge;
+    this.holidayCharge = holidayCharge;
+    this.wholeCents = Pricing.isWholeCents(dailyRate);
+    this.dailyRateCents = wholeCents ? Pricing.toCents(dailyRate) : 0;
+  }
+
+  public static RateSnapshot of(Charges charges) {
+    return new RateSnapshot(charges.getToolType(), charges.getDailyRate(),
+        charges.isWeekdayCharge(), charges.isWeekendCharge(), charges.isHolidayCharge());
+  }
+
+  public String getToolType() {
+    return toolType;
+  }
+
+  public BigDecimal getDailyRate() {
+    return dailyRate;
+  }
+
+  public boolean isWeekdayCharge() {
+    return weekdayCharge;
+  }
+
+  public boolean isWeekendCharge() {
+    return weekendCharge;
+  }
+
+  public boolean isHolidayCharge() {
+    return holidayCharge;
+  }
+
+  boolean isWholeCents() {
+    return wholeCents;
+  }
+
+  long getDailyRateCents() {
+    return dailyRateCents;
+  }
+}
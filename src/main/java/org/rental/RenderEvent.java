@@ -0,0 +1,22 @@
+package org.rental;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.checkout.Render")
+@Label("Render Agreement")
+@Category({"Checkout"})
+@Description("Formatting a rental agreement report, once it has been priced")
+@StackTrace(false)
+final class RenderEvent extends Event {
+
+  @Label("Tool Code")
+  String toolCode;
+
+  @Label("Rental Days")
+  int days;
+}
@@ -1,22 +1,16 @@
 package org.rental;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import org.data.Holiday;
+import org.data.HolidayCalendar;
 import org.data.Rental;
 import org.data.Tool;
+import org.metrics.Histogram;
 
 public class RentalAgreement {
 
-  private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy");
   private LocalDate dueDate;
-  private Integer chargeDays;
-  private BigDecimal preDiscountCharge;
-  private BigDecimal discountAmount;
-  private BigDecimal total;
+  private Quote quote;
   private final Tool tool;
   private final Rental rental;
 
@@ -25,78 +19,38 @@ public class RentalAgreement {
     this.rental = rental;
   }
 
-  private int calculateIncrement(LocalDate dayToCheck) {
-    if (!getTool().getType().isHolidayCharge()) {
-      if (!Holiday.isAHoliday(dayToCheck)) {
-        return 1;
-      }
-    } else {
-      return 1;
-    }
-    return 0;
-  }
-
-  private static boolean isAWeekend(LocalDate dayToCheck) {
-    return dayToCheck.getDayOfWeek() == DayOfWeek.SUNDAY
-        || dayToCheck.getDayOfWeek() == DayOfWeek.SATURDAY;
-  }
-
   private void calculateDueDate() {
     this.dueDate = getCheckoutDate().plusDays(getNumberDays());
   }
 
-  private void calculateChargeDays() {
-    int numberOfDays = 0;
-    for (int i = 0; i < getNumberDays(); i++) {
-      LocalDate dayToCheck = getCheckoutDate().plusDays(i);
-
-      if (dayToCheck.isAfter(getDueDate())) {
-        break;
-      }
-
-      boolean isAWeekend = isAWeekend(dayToCheck);
-
-      if (getTool().getType().isWeekendCharge() && isAWeekend) {
-        numberOfDays += calculateIncrement(dayToCheck);
-      } else if (getTool().getType().isWeekdayCharge() && !isAWeekend) {
-        numberOfDays += calculateIncrement(dayToCheck);
-      }
-    }
-
-    chargeDays = numberOfDays;
+  /**
+   * Returns the price of this rental from the {@link QuoteCache}, priced by the
+   * {@link QuoteEngine} on a miss.
+   */
+  public Quote getQuote() {
+    return getQuote(null, null);
   }
 
-  private void calculatePreDiscountCharge() {
-    this.preDiscountCharge = getDailyCharge().multiply(BigDecimal.valueOf(getChargeDays()));
-  }
-
-  private void calculateDiscount() {
-    this.discountAmount = getPreDiscountCharge().multiply(BigDecimal.valueOf(getDiscountPercent())).divide(BigDecimal.valueOf(100));
-  }
-
-  private void calculateTotal() {
-    this.total = getPreDiscountCharge().subtract(getDiscountAmount());
+  /**
+   * Returns the price as {@link #getQuote()} does, timing the pricing phases of a cache miss in
+   * the given histograms.
+   */
+  Quote getQuote(Histogram chargeDaysTime, Histogram pricingTime) {
+    if (quote == null) {
+      quote = QuoteCache.getDefault().quote(RateSnapshot.of(getTool().getType()),
+          getNumberDays(), getDiscountPercent(), getCheckoutDate(),
+          HolidayCalendar.forName(rental.getCalendar()), chargeDaysTime, pricingTime);
+    }
+    return quote;
   }
 
   @Override
   public String toString() {
-    return
-        "Tool code: " + getToolCode() + "/n" +
-            "Tool type: " + getToolType() + "/n" +
-            "Tool brand: " + getBrand() + "/n" +
-            "Rental days: " + getNumberDays() + "/n" +
-            "Check out date: " + getCheckoutDate().format(formatter) + "/n" +
-            "Due date: " + getDueDate().format(formatter) + "/n" +
-            "Daily rental charge: " + formatPrice(getDailyCharge()) + "/n" +
-            "Charge Days: " + getChargeDays() + "/n" +
-            "Pre-discount charge: " + formatPrice(getPreDiscountCharge()) + "/n" +
-            "Discount percent: " + getDiscountPercent() + "%" + "/n"  +
-            "Discount amount: " + formatPrice(getDiscountAmount()) + "/n" +
-            "Final charge: " + formatPrice(getTotal());
+    return AgreementRenderer.getDefault().render(this);
   }
 
   public String formatPrice(BigDecimal number) {
-    return NumberFormat.getCurrencyInstance().format(number);
+    return AgreementRenderer.getDefault().formatPrice(number);
   }
 
   public Tool getTool() {
@@ -139,17 +93,15 @@ public class RentalAgreement {
   }
 
   public int getChargeDays() {
-    if(chargeDays == null) {
-      calculateChargeDays();
-    }
-    return chargeDays;
+    return getQuote().getChargeDays();
   }
 
   public BigDecimal getPreDiscountCharge() {
-    if(preDiscountCharge == null) {
-      calculatePreDiscountCharge();
-    }
-    return preDiscountCharge;
+    return getQuote().getPreDiscountCharge();
+  }
+
+  public long getPreDiscountCents() {
+    return getQuote().getPreDiscountCents();
   }
 
   public int getDiscountPercent() {
@@ -157,16 +109,18 @@ public class RentalAgreement {
   }
 
   public BigDecimal getDiscountAmount() {
-    if(discountAmount == null) {
-      calculateDiscount();
-    }
-    return discountAmount;
+    return getQuote().getDiscountAmount();
+  }
+
+  public long getDiscountCents() {
+    return getQuote().getDiscountCents();
   }
 
   public BigDecimal getTotal() {
-    if (total == null) {
-      calculateTotal();
-    }
-    return total;
+    return getQuote().getTotal();
+  }
+
+  public long getTotalCents() {
+    return getQuote().getTotalCents();
   }
 }
@@ -1,23 +1,179 @@
 package org.rental;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import org.data.HolidayCalendar;
 import org.data.Rental;
+import org.data.RentalWriter;
+import org.data.ToolAvailability;
+import org.data.Tool;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
 
 public class RentalTransaction {
 
+  private static final Histogram CHECKOUT_TIME = Metrics.getDefault().histogram("checkout.total");
+  private static final Histogram TOOL_LOOKUP_TIME =
+      Metrics.getDefault().histogram("checkout.toolLookup");
+  private static final Histogram CHARGE_DAYS_TIME =
+      Metrics.getDefault().histogram("checkout.chargeDays");
+  private static final Histogram PRICING_TIME = Metrics.getDefault().histogram("checkout.pricing");
+  private static final Histogram STORE_TIME = Metrics.getDefault().histogram("checkout.store");
+
   private Rental order;
   private RentalAgreement rentalAgreement;
 
   public void Checkout(String toolCode, int numDays, int discount, LocalDate date) throws RuntimeException{
+    Checkout(toolCode, numDays, discount, date, null);
+  }
+
+  /**
+   * Checks out a tool charged by the named holiday calendar, or by the default calendar when
+   * {@code calendar} is null, and prices the agreement. The time this takes is recorded as
+   * {@code checkout.total}; storing the rental is timed separately by {@link #Store()}.
+   */
+  public void Checkout(String toolCode, int numDays, int discount, LocalDate date,
+      String calendar) throws RuntimeException {
+    CheckoutEvent event = new CheckoutEvent();
+    event.begin();
+    long started = Histogram.start();
+    validate(numDays, discount);
+    validateCalendar(calendar);
+
+    long lookup = Histogram.start();
+    this.order = HibernateUtil.inSession(session -> new Rental(toolCode, numDays, discount, date));
+    TOOL_LOOKUP_TIME.recordSince(lookup);
+    this.order.setCalendar(calendar);
+    this.rentalAgreement = new RentalAgreement(getOrder());
+    if (this.order.getTool() != null) {
+      this.rentalAgreement.getQuote(CHARGE_DAYS_TIME, PRICING_TIME);
+    }
+    CHECKOUT_TIME.recordSince(started);
+
+    if (event.shouldCommit()) {
+      event.toolCode = toolCode;
+      event.days = numDays;
+      event.discountPercent = discount;
+      event.calendar = calendar;
+      event.commit();
+    }
+  }
+
+  /**
+   * Durably stores the checked out rental. The tool is first reserved for the rental's days in
+   * the {@link ToolAvailability} index, and the store fails if any of them is already taken.
+   * Concurrent callers are committed together by the {@link RentalWriter}; this returns once the
+   * batch holding this rental has committed. The time until then is recorded as
+   * {@code checkout.store}.
+   */
+  public void Store() throws RuntimeException {
+    long started = Histogram.start();
+    if (this.order == null || this.order.getTool() == null) {
+      throw new CheckoutException("There is no checked out tool to store");
+    }
+
+    String toolCode = this.order.getTool().getCode();
+    LocalDate checkoutDate = this.order.getCheckoutDate();
+    LocalDate dueDate = checkoutDate.plusDays(this.order.getDays());
+    ToolAvailability availability = ToolAvailability.getDefault();
+    if (!availability.reserve(toolCode, checkoutDate, dueDate)) {
+      throw new CheckoutException("Tool " + toolCode
+          + " is already checked out for some of the days from " + checkoutDate + " to "
+          + dueDate);
+    }
+
+    try {
+      RentalWriter.getDefault().submit(this.order).join();
+      STORE_TIME.recordSince(started);
+    } catch (CompletionException ex) {
+      availability.release(toolCode, checkoutDate, dueDate);
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    } catch (RuntimeException ex) {
+      availability.release(toolCode, checkoutDate, dueDate);
+      throw ex;
+    }
+  }
+
+  public List<RentalAgreement> CheckoutBatch(List<CheckoutRequest> requests) throws RuntimeException {
+    ToolCatalog catalog = ToolCatalog.current();
+    Map<String, Tool> tools = new HashMap<>();
+    Set<String> uncataloguedCodes = new HashSet<>();
+    Set<String> calendars = new HashSet<>();
+    int firstYear = Integer.MAX_VALUE;
+    int lastYear = Integer.MIN_VALUE;
+
+    for (CheckoutRequest request : requests) {
+      validate(request.getNumDays(), request.getDiscount());
+      if (request.getToolCode() == null) {
+        throw new CheckoutException("A checkout request has no tool code");
+      }
+      if (request.getDate() == null) {
+        throw new CheckoutException("The checkout request for tool " + request.getToolCode()
+            + " has no checkout date");
+      }
+      if (calendars.add(request.getCalendar())) {
+        validateCalendar(request.getCalendar());
+      }
+
+      Tool tool = catalog.getTool(request.getToolCode());
+      if (tool != null) {
+        tools.put(tool.getCode(), tool);
+      } else {
+        uncataloguedCodes.add(request.getToolCode());
+      }
+      firstYear = Math.min(firstYear, request.getDate().getYear());
+      lastYear = Math.max(lastYear, request.getDate().plusDays(request.getNumDays()).getYear());
+    }
+
+    int fromYear = firstYear;
+    int toYear = lastYear;
+    tools.putAll(HibernateUtil.inSession(session -> {
+      for (String calendar : calendars) {
+        HolidayCalendar.forName(calendar).preloadYears(fromYear, toYear);
+      }
+      return Rental.processToolsQuery(uncataloguedCodes);
+    }));
+    for (String toolCode : uncataloguedCodes) {
+      if (!tools.containsKey(toolCode)) {
+        throw new CheckoutException("Unknown tool code: " + toolCode);
+      }
+    }
+
+    List<RentalAgreement> agreements = new ArrayList<>(requests.size());
+    for (CheckoutRequest request : requests) {
+      Rental rental = new Rental(tools.get(request.getToolCode()), request.getNumDays(),
+          request.getDiscount(), request.getDate());
+      rental.setCalendar(request.getCalendar());
+      agreements.add(new RentalAgreement(rental));
+    }
+
+    return agreements;
+  }
+
+  static void validate(int numDays, int discount) throws RuntimeException {
     if (numDays < 1) {
-      throw new RuntimeException("The number of rental days is " + numDays + ". It is required to be greater than or equal to 1");
+      throw new CheckoutException("The number of rental days is " + numDays + ". It is required to be greater than or equal to 1");
     }
     else if (discount < 0 || discount > 100) {
-      throw new RuntimeException("Discount percentage is: " + discount + ". It should be in the range 0-100 inclusive");
+      throw new CheckoutException("Discount percentage is: " + discount + ". It should be in the range 0-100 inclusive");
     }
+  }
 
-    this.order = new Rental(toolCode, numDays, discount, date);
-    this.rentalAgreement = new RentalAgreement(getOrder());
+  private static void validateCalendar(String calendar) throws RuntimeException {
+    if (calendar != null && !HolidayCalendar.isKnown(calendar)) {
+      throw new CheckoutException("There is no holiday calendar named " + calendar);
+    }
   }
 
   public void PrintRentalAgreement() {
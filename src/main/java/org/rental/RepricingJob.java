@@ -0,0 +1,355 @@
+package org.rental;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.data.Brand;
+import org.data.Charges;
+import org.data.HolidayCalendar;
+import org.data.HolidayRuleRepository;
+import org.data.Rental;
+import org.data.Tool;
+import org.data.ToolCatalog;
+import org.hibernate.CacheMode;
+import org.hibernate.HibernateUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+/**
+ * Reprices every stored {@link Rental} with the current tool rates and holiday rules, or with
+ * what-if rates. Rentals are streamed from a forward-only cursor as plain columns, so no entity is
+ * loaded and memory stays flat however many rows there are. The calling thread reads the cursor
+ * in chunks and hands each chunk to a {@link ForkJoinPool}; workers price from immutable
+ * {@link RateSnapshot}s and in-memory holiday calendars and share no mutable state. Each priced
+ * chunk is written to the {@link Sink} as one batch, in whatever order chunks finish.
+ *
+ * <p>At most two chunks per worker are in flight, so a slow sink holds the reader back rather
+ * than letting priced rows pile up.
+ */
+public final class RepricingJob {
+
+  public static final int DEFAULT_FETCH_SIZE = 1_000;
+  public static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+  private static final String QUERY_FOR_RENTALS = "SELECT r.rentalId, r.tool.code, r.days, "
+      + "r.discount, r.checkoutDate, r.calendar FROM Rental r";
+
+  /**
+   * Receives priced rentals a batch at a time. Batches are written one at a time, never
+   * concurrently.
+   */
+  public interface Sink {
+
+    void write(List<Repriced> batch) throws IOException;
+  }
+
+  public static final class Repriced {
+
+    private final long rentalId;
+    private final String toolCode;
+    private final Brand brand;
+    private final String calendar;
+    private final Quote quote;
+
+    private Repriced(long rentalId, String toolCode, Brand brand, String calendar, Quote quote) {
+      this.rentalId = rentalId;
+      this.toolCode = toolCode;
+      this.brand = brand;
+      this.calendar = calendar;
+      this.quote = quote;
+    }
+
+    public long getRentalId() {
+      return rentalId;
+    }
+
+    public String getToolCode() {
+      return toolCode;
+    }
+
+    /**
+     * Returns the tool's brand as of the catalog the job started with.
+     */
+    public Brand getBrand() {
+      return brand;
+    }
+
+    /**
+     * Returns the holiday calendar the rental is charged by, or null for the default calendar.
+     */
+    public String getCalendar() {
+      return calendar;
+    }
+
+    public Quote getQuote() {
+      return quote;
+    }
+  }
+
+  public static class Result {
+
+    private final long rows;
+    private final long skipped;
+    private final long totalCents;
+    private final long elapsedNanos;
+
+    private Result(long rows, long skipped, long totalCents, long elapsedNanos) {
+      this.rows = rows;
+      this.skipped = skipped;
+      this.totalCents = totalCents;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns the number of rentals whose tool has no rate, which are not repriced.
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+
+    public long getTotalCents() {
+      return totalCents;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+      return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Repriced %d rentals (%d skipped) totalling %d.%02d in %d ms, "
+              + "%.0f rows/s", rows, skipped, totalCents / 100, Math.abs(totalCents % 100),
+          elapsedNanos / 1_000_000, getRowsPerSecond());
+    }
+  }
+
+  private final int fetchSize;
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+
+  public RepricingJob() {
+    this(DEFAULT_FETCH_SIZE, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+  }
+
+  public RepricingJob(int fetchSize, int chunkSize, ForkJoinPool pool) {
+    this.fetchSize = fetchSize;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+  }
+
+  /**
+   * Reloads the tool catalog and holiday rules and reprices every rental with them.
+   */
+  public Result run(Sink sink, Consumer<Result> progress) {
+    ToolCatalog.reload();
+    HolidayRuleRepository.getDefault().reload();
+    return run(Collections.emptyMap(), sink, progress);
+  }
+
+  /**
+   * Reprices every rental with the given rates in place of the catalog's for their tool types,
+   * for example to see what a rate change would have earned. Holidays come from the rules already
+   * loaded. {@code progress} is called after every batch written.
+   */
+  public Result run(Map<String, RateSnapshot> ratesByToolType, Sink sink,
+      Consumer<Result> progress) {
+    Map<String, ToolRate> rates = ratesByTool(ratesByToolType);
+    Progress counts = new Progress(System.nanoTime());
+    Semaphore inFlight = new Semaphore(pool.getParallelism() * 2);
+    Phaser pending = new Phaser(1);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    try {
+      HibernateUtil.inNewSession(session -> {
+        Query<Object[]> query = session.createQuery(QUERY_FOR_RENTALS, Object[].class);
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
+        query.setCacheMode(CacheMode.IGNORE);
+
+        try (ScrollableResults<Object[]> cursor = query.scroll(ScrollMode.FORWARD_ONLY)) {
+          List<Object[]> chunk = new ArrayList<>(chunkSize);
+          while (failure.get() == null && cursor.next()) {
+            chunk.add(cursor.get());
+            if (chunk.size() == chunkSize) {
+              submit(chunk, rates, sink, progress, counts, inFlight, pending, failure);
+              chunk = new ArrayList<>(chunkSize);
+            }
+          }
+          if (!chunk.isEmpty()) {
+            submit(chunk, rates, sink, progress, counts, inFlight, pending, failure);
+          }
+        }
+        return null;
+      });
+    } finally {
+      // Chunks already handed to the pool finish before the job returns or fails.
+      pending.arriveAndAwaitAdvance();
+    }
+
+    Throwable failed = failure.get();
+    if (failed != null) {
+      throw new RuntimeException("Repricing failed", failed);
+    }
+    return counts.snapshot();
+  }
+
+  private void submit(List<Object[]> chunk, Map<String, ToolRate> rates, Sink sink,
+      Consumer<Result> progress, Progress counts, Semaphore inFlight, Phaser pending,
+      AtomicReference<Throwable> failure) {
+    inFlight.acquireUninterruptibly();
+    pending.register();
+    pool.execute(() -> {
+      try {
+        List<Repriced> batch = price(chunk, rates);
+        synchronized (sink) {
+          sink.write(batch);
+          counts.add(batch, chunk.size() - batch.size());
+          if (progress != null) {
+            progress.accept(counts.snapshot());
+          }
+        }
+      } catch (Throwable ex) {
+        // Errors too, so that a worker that dies never lets the job report success.
+        failure.compareAndSet(null, ex);
+      } finally {
+        inFlight.release();
+        pending.arriveAndDeregister();
+      }
+    });
+  }
+
+  private static List<Repriced> price(List<Object[]> chunk, Map<String, ToolRate> rates) {
+    List<Repriced> batch = new ArrayList<>(chunk.size());
+    for (Object[] row : chunk) {
+      String toolCode = (String) row[1];
+      ToolRate tool = rates.get(toolCode);
+      if (tool == null) {
+        continue;
+      }
+
+      String calendar = (String) row[5];
+      Quote quote = QuoteEngine.price(tool.rate, (Integer) row[2], (Integer) row[3],
+          (LocalDate) row[4], HolidayCalendar.inMemory(calendar));
+      batch.add(new Repriced((Long) row[0], toolCode, tool.brand, calendar, quote));
+    }
+    return batch;
+  }
+
+  /**
+   * Takes the rate and brand of every tool from one catalog snapshot, so a catalog reload during
+   * the run cannot change them.
+   */
+  private static Map<String, ToolRate> ratesByTool(Map<String, RateSnapshot> ratesByToolType) {
+    ToolCatalog catalog = ToolCatalog.current();
+    Map<String, RateSnapshot> snapshots = new HashMap<>();
+    for (Charges charges : catalog.getAllCharges()) {
+      snapshots.put(charges.getToolType(), RateSnapshot.of(charges));
+    }
+    snapshots.putAll(ratesByToolType);
+
+    Map<String, ToolRate> rates = new HashMap<>();
+    for (Tool tool : catalog.getTools()) {
+      RateSnapshot rate = snapshots.get(tool.getType().getToolType());
+      if (rate != null) {
+        rates.put(tool.getCode(), new ToolRate(rate, tool.getToolBrand()));
+      }
+    }
+    return rates;
+  }
+
+  /**
+   * Writes each repriced rental as a comma separated line of rental id, tool code, charge days
+   * and the pre-discount, discount and final amounts in cents.
+   */
+  public static Sink csv(Writer out) {
+    return batch -> {
+      for (Repriced repriced : batch) {
+        Quote quote = repriced.getQuote();
+        out.write(repriced.getRentalId() + "," + repriced.getToolCode() + ","
+            + quote.getChargeDays() + "," + quote.getPreDiscountCents() + ","
+            + quote.getDiscountCents() + "," + quote.getTotalCents() + "\n");
+      }
+    };
+  }
+
+  private static final class ToolRate {
+
+    private final RateSnapshot rate;
+    private final Brand brand;
+
+    private ToolRate(RateSnapshot rate, Brand brand) {
+      this.rate = rate;
+      this.brand = brand;
+    }
+  }
+
+  private static final class Progress {
+
+    private final long start;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder totalCents = new LongAdder();
+
+    private Progress(long start) {
+      this.start = start;
+    }
+
+    private void add(List<Repriced> batch, int skippedRows) {
+      rows.add(batch.size());
+      skipped.add(skippedRows);
+      for (Repriced repriced : batch) {
+        totalCents.add(repriced.getQuote().getTotalCents());
+      }
+    }
+
+    private Result snapshot() {
+      return new Result(rows.sum(), skipped.sum(), totalCents.sum(), System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Reprices every stored rental into the file named by the first argument, printing progress
+   * every 100,000 rentals.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Expected the output file as the only argument");
+    }
+
+    try (BufferedWriter out = Files.newBufferedWriter(Paths.get(args[0]),
+        StandardCharsets.UTF_8)) {
+      long[] reported = {0};
+      Result result = new RepricingJob().run(csv(out), progress -> {
+        if (progress.getRows() - reported[0] >= 100_000) {
+          reported[0] = progress.getRows();
+          System.out.println(progress);
+        }
+      });
+      System.out.println(result);
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package org.rental;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import org.data.Brand;
+
+/**
+ * Rental revenue facts held column by column in primitive arrays: tool type and brand as small
+ * codes, checkout epoch day, charge days, discount percent and the discount and total in cents.
+ * Rows are sorted by checkout day, so a date range is one contiguous run of rows found by binary
+ * search, and a grouped aggregation is a single pass over that run into dense arrays indexed by
+ * the group, with no objects created per row.
+ *
+ * <p>A store is an immutable snapshot. {@link #load()} builds one from the stored rentals through
+ * the {@link RepricingJob}; build a new one to pick up newer rentals.
+ */
+public final class RevenueStore {
+
+  private static final Brand[] BRANDS = Brand.values();
+
+  public enum GroupBy {
+    TOOL_TYPE,
+    BRAND,
+    WEEK
+  }
+
+  /**
+   * The revenue of one group. Dimensions that were not grouped by are null.
+   */
+  public static final class Revenue {
+
+    private final String toolType;
+    private final Brand brand;
+    private final LocalDate week;
+    private final long rentals;
+    private final long chargeDays;
+    private final long discountCents;
+    private final long totalCents;
+
+    private Revenue(String toolType, Brand brand, LocalDate week, long rentals, long chargeDays,
+        long discountCents, long totalCents) {
+      this.toolType = toolType;
+      this.brand = brand;
+      this.week = week;
+      this.rentals = rentals;
+      this.chargeDays = chargeDays;
+      this.discountCents = discountCents;
+      this.totalCents = totalCents;
+    }
+
+    public String getToolType() {
+      return toolType;
+    }
+
+    public Brand getBrand() {
+      return brand;
+    }
+
+    /**
+     * Returns the Monday the week starts on.
+     */
+    public LocalDate getWeek() {
+      return week;
+    }
+
+    public long getRentals() {
+      return rentals;
+    }
+
+    public long getChargeDays() {
+      return chargeDays;
+    }
+
+    public long getDiscountCents() {
+      return discountCents;
+    }
+
+    public long getTotalCents() {
+      return totalCents;
+    }
+
+    @Override
+    public String toString() {
+      return (toolType == null ? "" : toolType + " ") + (brand == null ? "" : brand + " ")
+          + (week == null ? "" : week + " ") + rentals + " rentals, " + totalCents + " cents";
+    }
+  }
+
+  /**
+   * Collects facts for a store. It is also a {@link RepricingJob.Sink}, so a repricing run can
+   * feed it directly.
+   */
+  public static final class Builder implements RepricingJob.Sink {
+
+    private String[] toolTypeByRow = new String[1024];
+    private byte[] brand = new byte[1024];
+    private int[] checkoutDay = new int[1024];
+    private int[] chargeDays = new int[1024];
+    private byte[] discountPercent = new byte[1024];
+    private long[] discountCents = new long[1024];
+    private long[] totalCents = new long[1024];
+    private int size;
+
+    public Builder add(String toolType, Brand toolBrand, LocalDate checkoutDate, int days,
+        int discount, long discounted, long total) {
+      if (size == checkoutDay.length) {
+        grow();
+      }
+      toolTypeByRow[size] = toolType;
+      brand[size] = (byte) toolBrand.ordinal();
+      checkoutDay[size] = Math.toIntExact(checkoutDate.toEpochDay());
+      chargeDays[size] = days;
+      discountPercent[size] = (byte) discount;
+      discountCents[size] = discounted;
+      totalCents[size] = total;
+      size++;
+      return this;
+    }
+
+    @Override
+    public void write(List<RepricingJob.Repriced> batch) {
+      for (RepricingJob.Repriced repriced : batch) {
+        Quote quote = repriced.getQuote();
+        add(quote.getToolType(), repriced.getBrand(), quote.getCheckoutDate(),
+            quote.getChargeDays(), quote.getDiscountPercent(), quote.getDiscountCents(),
+            quote.getTotalCents());
+      }
+    }
+
+    public RevenueStore build() {
+      // Tool types are coded in name order, so groups come out sorted by name.
+      String[] names = new TreeSet<>(Arrays.asList(toolTypeByRow).subList(0, size))
+          .toArray(new String[0]);
+      long[] order = new long[size];
+      for (int row = 0; row < size; row++) {
+        order[row] = (long) checkoutDay[row] << 32 | row;
+      }
+      Arrays.sort(order);
+
+      RevenueStore store = new RevenueStore(names, size);
+      for (int i = 0; i < size; i++) {
+        int row = (int) order[i];
+        store.toolType[i] = Arrays.binarySearch(names, toolTypeByRow[row]);
+        store.brand[i] = brand[row];
+        store.checkoutDay[i] = checkoutDay[row];
+        store.chargeDays[i] = chargeDays[row];
+        store.discountPercent[i] = discountPercent[row];
+        store.discountCents[i] = discountCents[row];
+        store.totalCents[i] = totalCents[row];
+      }
+      return store;
+    }
+
+    private void grow() {
+      int capacity = size * 2;
+      toolTypeByRow = Arrays.copyOf(toolTypeByRow, capacity);
+      brand = Arrays.copyOf(brand, capacity);
+      checkoutDay = Arrays.copyOf(checkoutDay, capacity);
+      chargeDays = Arrays.copyOf(chargeDays, capacity);
+      discountPercent = Arrays.copyOf(discountPercent, capacity);
+      discountCents = Arrays.copyOf(discountCents, capacity);
+      totalCents = Arrays.copyOf(totalCents, capacity);
+    }
+  }
+
+  private final String[] toolTypes;
+  private final int[] toolType;
+  private final byte[] brand;
+  private final int[] checkoutDay;
+  private final int[] chargeDays;
+  private final byte[] discountPercent;
+  private final long[] discountCents;
+  private final long[] totalCents;
+
+  private RevenueStore(String[] toolTypes, int size) {
+    this.toolTypes = toolTypes;
+    this.toolType = new int[size];
+    this.brand = new byte[size];
+    this.checkoutDay = new int[size];
+    this.chargeDays = new int[size];
+    this.discountPercent = new byte[size];
+    this.discountCents = new long[size];
+    this.totalCents = new long[size];
+  }
+
+  /**
+   * Prices every stored rental with the current rates and holiday rules and holds the results.
+   */
+  public static RevenueStore load() {
+    Builder builder = new Builder();
+    new RepricingJob().run(builder, null);
+    return builder.build();
+  }
+
+  public int size() {
+    return checkoutDay.length;
+  }
+
+  /**
+   * Returns the revenue of the rentals checked out in [from, to), optionally only of one tool
+   * type or brand, grouped by the given dimensions. Groups without rentals are left out; the rest
+   * are in order of tool type name, brand and week. With no dimensions the whole range is one
+   * group.
+   */
+  public List<Revenue> revenue(LocalDate from, LocalDate to, String onlyToolType,
+      Brand onlyBrand, GroupBy... groupBy) {
+    int fromDay = Math.toIntExact(from.toEpochDay());
+    int toDay = Math.toIntExact(to.toEpochDay());
+    int first = lowerBound(fromDay);
+    int last = Math.max(first, lowerBound(toDay));
+    int typeFilter = onlyToolType == null ? -1 : Arrays.binarySearch(toolTypes, onlyToolType);
+    int brandFilter = onlyBrand == null ? -1 : onlyBrand.ordinal();
+    if (onlyToolType != null && typeFilter < 0) {
+      return new ArrayList<>();
+    }
+
+    List<GroupBy> dimensions = Arrays.asList(groupBy);
+    boolean byType = dimensions.contains(GroupBy.TOOL_TYPE);
+    boolean byBrand = dimensions.contains(GroupBy.BRAND);
+    boolean byWeek = dimensions.contains(GroupBy.WEEK);
+    int firstWeek = weekOf(fromDay);
+    int types = byType ? toolTypes.length : 1;
+    int brands = byBrand ? BRANDS.length : 1;
+    int weeks = byWeek && fromDay < toDay ? weekOf(toDay - 1) - firstWeek + 1 : 1;
+    int groups = Math.multiplyExact(Math.multiplyExact(types, brands), weeks);
+
+    long[] rentals = new long[groups];
+    long[] days = new long[groups];
+    long[] discounts = new long[groups];
+    long[] totals = new long[groups];
+    for (int row = first; row < last; row++) {
+      int type = toolType[row];
+      int rowBrand = brand[row];
+      if ((typeFilter >= 0 && type != typeFilter)
+          || (brandFilter >= 0 && rowBrand != brandFilter)) {
+        continue;
+      }
+      int group = ((byType ? type : 0) * brands + (byBrand ? rowBrand : 0)) * weeks
+          + (byWeek ? weekOf(checkoutDay[row]) - firstWeek : 0);
+      rentals[group]++;
+      days[group] += chargeDays[row];
+      discounts[group] += discountCents[row];
+      totals[group] += totalCents[row];
+    }
+
+    List<Revenue> revenue = new ArrayList<>();
+    for (int group = 0; group < groups; group++) {
+      if (rentals[group] == 0) {
+        continue;
+      }
+      int week = group % weeks;
+      int rowBrand = group / weeks % brands;
+      int type = group / weeks / brands;
+      revenue.add(new Revenue(byType ? toolTypes[type] : null,
+          byBrand ? BRANDS[rowBrand] : null,
+          byWeek ? LocalDate.ofEpochDay(weekStart(firstWeek + week)) : null,
+          rentals[group], days[group], discounts[group], totals[group]));
+    }
+    return revenue;
+  }
+
+  /**
+   * Returns the average discount percent of the rentals checked out in [from, to), or 0 when
+   * there are none.
+   */
+  public double averageDiscountPercent(LocalDate from, LocalDate to) {
+    int first = lowerBound(Math.toIntExact(from.toEpochDay()));
+    int last = Math.max(first, lowerBound(Math.toIntExact(to.toEpochDay())));
+    long sum = 0;
+    for (int row = first; row < last; row++) {
+      sum += discountPercent[row];
+    }
+    return first == last ? 0 : (double) sum / (last - first);
+  }
+
+  private int lowerBound(int epochDay) {
+    int low = 0;
+    int high = checkoutDay.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (checkoutDay[middle] < epochDay) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Numbers weeks from Monday; epoch day 0 is a Thursday.
+   */
+  private static int weekOf(int epochDay) {
+    return Math.floorDiv(epochDay + 3, 7);
+  }
+
+  private static int weekStart(int week) {
+    return week * 7 - 3;
+  }
+}
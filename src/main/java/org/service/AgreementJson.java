@@ -0,0 +1,120 @@
+package org.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.data.Tool;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
+import org.rental.Quote;
+import org.rental.RentalAgreement;
+
+final class AgreementJson {
+
+  private static final Histogram RENDER_TIME =
+      Metrics.getDefault().histogram("checkout.render.json");
+
+  private AgreementJson() {
+
+  }
+
+  static String write(long agreementId, RentalAgreement agreement) {
+    Quote quote = agreement.getQuote();
+    long start = Histogram.start();
+    StringBuilder json = new StringBuilder(384);
+    json.append('{');
+    field(json, "id").append(agreementId).append(',');
+    tool(json, agreement.getToolCode(), agreement.getToolType(), agreement.getBrand());
+    prices(json, quote);
+    String written = json.append('}').toString();
+    RENDER_TIME.recordSince(start);
+    return written;
+  }
+
+  static String write(Tool tool, Quote quote) {
+    long start = Histogram.start();
+    StringBuilder json = new StringBuilder(384);
+    json.append('{');
+    tool(json, tool.getCode(), quote.getToolType(), tool.getToolBrand().name());
+    prices(json, quote);
+    String written = json.append('}').toString();
+    RENDER_TIME.recordSince(start);
+    return written;
+  }
+
+  static String error(String message) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "error");
+    return string(json, message).append('}').toString();
+  }
+
+  private static void tool(StringBuilder json, String code, String type, String brand) {
+    field(json, "toolCode");
+    string(json, code).append(',');
+    field(json, "toolType");
+    string(json, type).append(',');
+    field(json, "toolBrand");
+    string(json, brand).append(',');
+  }
+
+  private static void prices(StringBuilder json, Quote quote) {
+    field(json, "rentalDays").append(quote.getNumberDays()).append(',');
+    field(json, "checkoutDate");
+    string(json, quote.getCheckoutDate().toString()).append(',');
+    field(json, "dueDate");
+    string(json, quote.getDueDate().toString()).append(',');
+    field(json, "dailyRentalCharge");
+    money(json, quote.getDailyCharge()).append(',');
+    field(json, "chargeDays").append(quote.getChargeDays()).append(',');
+    field(json, "preDiscountCharge");
+    money(json, quote.getPreDiscountCharge()).append(',');
+    field(json, "discountPercent").append(quote.getDiscountPercent()).append(',');
+    field(json, "discountAmount");
+    money(json, quote.getDiscountAmount()).append(',');
+    field(json, "finalCharge");
+    money(json, quote.getTotal());
+  }
+
+  private static StringBuilder field(StringBuilder json, String name) {
+    return json.append('"').append(name).append("\":");
+  }
+
+  private static StringBuilder money(StringBuilder json, BigDecimal amount) {
+    // Rounded the same way as RentalAgreement.formatPrice renders the amount on the report.
+    return json.append(amount.setScale(2, RoundingMode.HALF_EVEN).toPlainString());
+  }
+
+  private static StringBuilder string(StringBuilder json, String value) {
+    if (value == null) {
+      return json.append("null");
+    }
+
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    return json.append('"');
+  }
+}
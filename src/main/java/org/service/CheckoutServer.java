@@ -0,0 +1,253 @@
+package org.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.data.HolidayCalendar;
+import org.data.Rental;
+import org.data.Tool;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.rental.CheckoutException;
+import org.rental.Quote;
+import org.rental.QuoteEngine;
+import org.rental.RateSnapshot;
+import org.rental.RentalAgreement;
+import org.rental.RentalTransaction;
+
+/**
+ * Embedded HTTP front end for {@link RentalTransaction#Checkout}. Every exchange runs on its own
+ * virtual thread, so a request blocked on the database parks its virtual thread instead of holding
+ * a platform thread. Checkouts are stored through {@link RentalTransaction#Store()} before the
+ * response is sent, and agreements are read back from the stored rental.
+ *
+ * <ul>
+ *   <li>{@code POST /checkout} with form parameters {@code toolCode}, {@code days},
+ *   {@code discount} and {@code checkoutDate} (ISO yyyy-MM-dd) answers 201 with the agreement.</li>
+ *   <li>{@code GET /agreements/{id}} answers 200 with a previously created agreement.</li>
+ *   <li>{@code GET /quote} with the checkout parameters answers 200 with the price. Quotes are
+ *   priced from the in-memory tool catalog and holiday rules and never touch the database.</li>
+ * </ul>
+ *
+ * <p>A request that is refused by a {@link CheckoutException} answers 400; any other failure
+ * answers 500 with a generic error, and its details only go to the server log.
+ */
+public class CheckoutServer {
+
+  private static final String CHECKOUT_PATH = "/checkout";
+  private static final String AGREEMENTS_PATH = "/agreements/";
+  private static final String QUOTE_PATH = "/quote";
+  private static final String JSON = "application/json; charset=utf-8";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  public CheckoutServer(InetSocketAddress address) throws IOException {
+    this.server = HttpServer.create(address, 0);
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext(CHECKOUT_PATH, exchange -> handle(exchange, this::handleCheckout));
+    server.createContext(AGREEMENTS_PATH, exchange -> handle(exchange, this::handleAgreement));
+    server.createContext(QUOTE_PATH, exchange -> handle(exchange, this::handleQuote));
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop(int delaySeconds) {
+    server.stop(delaySeconds);
+    executor.close();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  private void handleCheckout(HttpExchange exchange) throws IOException {
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      send(exchange, 405, AgreementJson.error("Checkout requires POST"));
+      return;
+    }
+
+    Map<String, String> parameters = readParameters(exchange);
+    String toolCode;
+    int days;
+    int discount;
+    LocalDate checkoutDate;
+    String calendar = parameters.get("calendar");
+    try {
+      toolCode = required(parameters, "toolCode");
+      days = Integer.parseInt(required(parameters, "days"));
+      discount = Integer.parseInt(parameters.getOrDefault("discount", "0"));
+      checkoutDate = LocalDate.parse(required(parameters, "checkoutDate"));
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      send(exchange, 400, AgreementJson.error(ex.getMessage()));
+      return;
+    }
+
+    RentalTransaction transaction = new RentalTransaction();
+    try {
+      transaction.Checkout(toolCode, days, discount, checkoutDate, calendar);
+      if (transaction.getOrder().getTool() == null) {
+        send(exchange, 404, AgreementJson.error("Unknown tool code: " + toolCode));
+        return;
+      }
+      transaction.Store();
+    } catch (CheckoutException ex) {
+      send(exchange, 400, AgreementJson.error(ex.getMessage()));
+      return;
+    }
+
+    long agreementId = transaction.getOrder().getRentalId();
+    String body = AgreementJson.write(agreementId, transaction.getRentalAgreement());
+
+    exchange.getResponseHeaders().set("Location", AGREEMENTS_PATH + agreementId);
+    send(exchange, 201, body);
+  }
+
+  private void handleAgreement(HttpExchange exchange) throws IOException {
+    if (!"GET".equals(exchange.getRequestMethod())) {
+      send(exchange, 405, AgreementJson.error("Agreements are read with GET"));
+      return;
+    }
+
+    long agreementId;
+    try {
+      agreementId = Long.parseLong(
+          exchange.getRequestURI().getPath().substring(AGREEMENTS_PATH.length()));
+    } catch (NumberFormatException ex) {
+      send(exchange, 404, AgreementJson.error("No such agreement"));
+      return;
+    }
+
+    String body = HibernateUtil.inSession(session -> {
+      Rental rental = session.get(Rental.class, agreementId);
+      return rental == null ? null : AgreementJson.write(agreementId, new RentalAgreement(rental));
+    });
+
+    if (body == null) {
+      send(exchange, 404, AgreementJson.error("No such agreement: " + agreementId));
+      return;
+    }
+
+    send(exchange, 200, body);
+  }
+
+  private void handleQuote(HttpExchange exchange) throws IOException {
+    if (!"GET".equals(exchange.getRequestMethod())) {
+      send(exchange, 405, AgreementJson.error("Quotes are read with GET"));
+      return;
+    }
+
+    Map<String, String> parameters = readParameters(exchange);
+    String toolCode;
+    int days;
+    int discount;
+    LocalDate checkoutDate;
+    String calendar = parameters.get("calendar");
+    try {
+      toolCode = required(parameters, "toolCode");
+      days = Integer.parseInt(required(parameters, "days"));
+      discount = Integer.parseInt(parameters.getOrDefault("discount", "0"));
+      checkoutDate = LocalDate.parse(required(parameters, "checkoutDate"));
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      send(exchange, 400, AgreementJson.error(ex.getMessage()));
+      return;
+    }
+
+    Tool tool = ToolCatalog.current().getTool(toolCode);
+    if (tool == null) {
+      send(exchange, 404, AgreementJson.error("Unknown tool code: " + toolCode));
+      return;
+    }
+    if (calendar != null && !HolidayCalendar.isKnown(calendar)) {
+      send(exchange, 400, AgreementJson.error("There is no holiday calendar named " + calendar));
+      return;
+    }
+
+    Quote quote;
+    try {
+      quote = QuoteEngine.forCalendar(calendar).quote(RateSnapshot.of(tool.getType()), days,
+          discount, checkoutDate);
+    } catch (CheckoutException ex) {
+      send(exchange, 400, AgreementJson.error(ex.getMessage()));
+      return;
+    }
+
+    send(exchange, 200, AgreementJson.write(tool, quote));
+  }
+
+  private static String required(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if (value == null || value.isEmpty()) {
+      throw new IllegalArgumentException("Missing parameter: " + name);
+    }
+    return value;
+  }
+
+  private static Map<String, String> readParameters(HttpExchange exchange) throws IOException {
+    Map<String, String> parameters = new HashMap<>();
+    parseForm(exchange.getRequestURI().getRawQuery(), parameters);
+    try (InputStream body = exchange.getRequestBody()) {
+      parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+    }
+    return parameters;
+  }
+
+  private static void parseForm(String form, Map<String, String> parameters) {
+    if (form == null || form.isEmpty()) {
+      return;
+    }
+
+    for (String pair : form.split("&")) {
+      int separator = pair.indexOf('=');
+      if (separator > 0) {
+        parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  /**
+   * Runs the handler and closes the exchange. An unexpected failure answers 500, unless a
+   * response has already been started.
+   */
+  private static void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+    try (exchange) {
+      try {
+        handler.handle(exchange);
+      } catch (RuntimeException ex) {
+        sendError(exchange, ex);
+      }
+    }
+  }
+
+  private static void sendError(HttpExchange exchange, RuntimeException ex) throws IOException {
+    ex.printStackTrace();
+    if (exchange.getResponseCode() == -1) {
+      send(exchange, 500, AgreementJson.error("Internal error"));
+    }
+  }
+
+  private static void send(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
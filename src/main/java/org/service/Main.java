@@ -0,0 +1,31 @@
+package org.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import org.data.HolidayRuleRepository;
+
+public class Main {
+
+  public static void main(String[] args) throws IOException {
+    CompletableFuture<Void> startup = Startup.begin();
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("checkout.port", 8080);
+
+    CheckoutServer server = new CheckoutServer(new InetSocketAddress(port));
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+    startup.join();
+    HolidayRuleRepository.getDefault().startAutoRefresh();
+    server.start();
+
+    System.out.println("Checkout service listening on port " + server.getPort() + ", ready in "
+        + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+
+    // A training run records the classes loaded by startup and a request, for example into a
+    // class data sharing archive, and then exits.
+    if (Boolean.getBoolean("checkout.trainingRun")) {
+      Startup.exercise(server.getPort());
+      System.exit(0);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.data.HolidayCalendar;
+import org.data.HolidayRuleRepository;
+import org.data.Tool;
+import org.data.ToolAvailability;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.rental.Quote;
+import org.rental.QuoteCache;
+import org.rental.RateSnapshot;
+
+/**
+ * Brings the service up before it takes traffic. {@link #begin()} starts the Hibernate bootstrap
+ * on its own thread, so it overlaps with binding the server socket. Once the session factory is
+ * built, the tool catalog, holiday rules and tool reservations are loaded, the holiday years
+ * around today are resolved and the pricing path is run enough times for the JIT to compile it,
+ * so the first customer does not pay for any of it.
+ */
+public final class Startup {
+
+  private static final int WARMUP_QUOTES = 20_000;
+
+  private Startup() {
+
+  }
+
+  public static CompletableFuture<Void> begin() {
+    return HibernateUtil.startBootstrap().thenRun(Startup::preload);
+  }
+
+  /**
+   * Loads the tool catalog, holiday rules and tool reservations and warms up the pricing path.
+   * The session factory is built first if {@link #begin()} has not already built it.
+   */
+  public static void preload() {
+    ToolCatalog.reload();
+    HolidayRuleRepository.getDefault().reload();
+    ToolAvailability.getDefault();
+    int year = LocalDate.now().getYear();
+    HolidayCalendar.getDefault().preloadYears(year - 1, year + 2);
+    warmUpPricing();
+  }
+
+  /**
+   * Runs a fixed number of quotes spread across the catalogued tools, so startup takes no longer
+   * with a larger catalog.
+   */
+  private static void warmUpPricing() {
+    // A cache that never hits, so every quote runs the charge day count and the money arithmetic.
+    QuoteCache uncached = new QuoteCache(1, Duration.ZERO);
+    HolidayCalendar calendar = HolidayCalendar.getDefault();
+    LocalDate today = LocalDate.now();
+    List<Tool> tools = new ArrayList<>(ToolCatalog.current().getTools());
+    if (tools.isEmpty()) {
+      return;
+    }
+    RateSnapshot[] rates = new RateSnapshot[tools.size()];
+    for (int t = 0; t < rates.length; t++) {
+      rates[t] = RateSnapshot.of(tools.get(t).getType());
+    }
+
+    for (int i = 0; i < WARMUP_QUOTES; i++) {
+      int t = i % rates.length;
+      Quote quote = uncached.quote(rates[t], 1 + i % 30, i % 101, today.plusDays(i % 365),
+          calendar);
+      if (i % 1000 == 0) {
+        AgreementJson.write(tools.get(t), quote);
+      }
+    }
+  }
+
+  /**
+   * Sends read-only requests through the running server, for training runs that record the
+   * classes a real request loads.
+   */
+  static void exercise(int port) throws IOException {
+    String quote = "toolCode=NONE";
+    for (Tool tool : ToolCatalog.current().getTools()) {
+      quote = "toolCode=" + tool.getCode();
+      break;
+    }
+    request(port, "/quote?" + quote + "&days=5&discount=10&checkoutDate=" + LocalDate.now());
+    request(port, "/agreements/0");
+  }
+
+  private static void request(int port, String path) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) URI.create(
+        "http://localhost:" + port + path).toURL().openConnection();
+    try {
+      InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream()
+          : connection.getErrorStream();
+      if (body != null) {
+        body.readAllBytes();
+        body.close();
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+}
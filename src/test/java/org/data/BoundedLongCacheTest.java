@@ -0,0 +1,62 @@
+package org.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedLongCacheTest {
+
+  @Test
+  public void testCapacityIsRoundedUpToAPowerOfTwo() {
+    Assert.assertEquals(1, new BoundedLongCache<String>(0).capacity());
+    Assert.assertEquals(512, new BoundedLongCache<String>(512).capacity());
+    Assert.assertEquals(1024, new BoundedLongCache<String>(513).capacity());
+  }
+
+  @Test
+  public void testConsecutiveYearsDoNotEvictEachOther() {
+    BoundedLongCache<String> cache = new BoundedLongCache<>(64);
+    for (int year = 1990; year < 2054; year++) {
+      cache.put(year, Integer.toString(year));
+    }
+
+    for (int year = 1990; year < 2054; year++) {
+      Assert.assertEquals(Integer.toString(year), cache.get(year));
+    }
+  }
+
+  @Test
+  public void testFootprintIsBoundedByEviction() {
+    BoundedLongCache<String> cache = new BoundedLongCache<>(64);
+    for (int year = 1900; year < 2100; year++) {
+      cache.put(year, Integer.toString(year));
+    }
+
+    int held = 0;
+    for (int year = 1900; year < 2100; year++) {
+      String value = cache.get(year);
+      if (value != null) {
+        Assert.assertEquals(Integer.toString(year), value);
+        held++;
+      }
+    }
+    Assert.assertEquals(64, held);
+    Assert.assertEquals("2099", cache.get(2099));
+    Assert.assertNull(cache.get(1900));
+  }
+
+  @Test
+  public void testPackedHolidayKeysAreDistinct() {
+    BoundedLongCache<String> cache = new BoundedLongCache<>(4096);
+    for (long holidayId = 1; holidayId <= 12; holidayId++) {
+      for (int year = 2000; year < 2100; year++) {
+        cache.put(Holiday.getKey(holidayId, year), holidayId + "/" + year);
+      }
+    }
+
+    Assert.assertEquals("3/2050", cache.get(Holiday.getKey(3, 2050)));
+    Assert.assertNull(cache.get(Holiday.getKey(13, 2050)));
+
+    cache.clear();
+    Assert.assertNull(cache.get(Holiday.getKey(3, 2050)));
+  }
+}
@@ -0,0 +1,121 @@
+package org.data;
+
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hibernate.HibernateUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkLoaderTest {
+
+  @After
+  public void tearDown() {
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+      session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+      session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+      session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+      return null;
+    });
+    ToolCatalog.reload();
+    HolidayCalendar.getDefault().invalidate();
+    ToolAvailability.getDefault().rebuild();
+    HibernateUtil.closeSession();
+  }
+
+  private static BulkLoader.Result loadResource(BulkLoader loader, BulkLoader.Kind kind,
+      String resource) throws Exception {
+    return loader.load(kind, new InputStreamReader(
+        BulkLoaderTest.class.getClassLoader().getResourceAsStream(resource)), resource);
+  }
+
+  private static long count(String entity) {
+    return HibernateUtil.inNewSession(session -> session
+        .createQuery("SELECT count(e) FROM " + entity + " e", Long.class).getSingleResult());
+  }
+
+  @Test
+  public void testLoadTestData() throws Exception {
+    BulkLoader loader = new BulkLoader(2, 3);
+
+    Assert.assertEquals(3, loadResource(loader, BulkLoader.Kind.CHARGES,
+        "charges-test-data.txt").getRows());
+    Assert.assertEquals(4, loadResource(loader, BulkLoader.Kind.TOOLS,
+        "tool-test-data.txt").getRows());
+    BulkLoader.Result holidays = loadResource(loader, BulkLoader.Kind.HOLIDAYS,
+        "holiday-test-data.txt");
+    BulkLoader.Result rentals = loadResource(loader, BulkLoader.Kind.RENTALS,
+        "rental-test-data.txt");
+
+    Assert.assertEquals(10, holidays.getRows());
+    Assert.assertTrue(holidays.getRejects().isEmpty());
+    Assert.assertEquals(7, rentals.getRows());
+    Assert.assertEquals(3, rentals.getRejects().size());
+    Assert.assertTrue(rentals.getRejects().get(0).startsWith(
+        "rental-test-data.txt:4: Unknown tool code JAKR"));
+    Assert.assertEquals(10, count("Holiday"));
+    Assert.assertEquals(7, count("Rental"));
+    Assert.assertEquals(new BigDecimal("1.99"),
+        ToolCatalog.current().getTool("LADW").getType().getDailyRate());
+    Assert.assertTrue(Holiday.isAHoliday(LocalDate.of(2023, 7, 4)));
+  }
+
+  @Test
+  public void testOnlyTheFirstRejectsAreKept() throws Exception {
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < BulkLoader.MAX_REPORTED_REJECTS + 5; i++) {
+      lines.append("NOPE,3,10,2020-07-02\n");
+    }
+
+    BulkLoader.Result result = new BulkLoader().load(BulkLoader.Kind.RENTALS,
+        new StringReader(lines.toString()), "rentals");
+
+    Assert.assertEquals(0, result.getRows());
+    Assert.assertEquals(BulkLoader.MAX_REPORTED_REJECTS, result.getRejects().size());
+    Assert.assertEquals(BulkLoader.MAX_REPORTED_REJECTS + 5, result.getRejectCount());
+  }
+
+  @Test
+  public void testInvalidLinesAreRejected() throws Exception {
+    BulkLoader loader = new BulkLoader();
+    loader.load(BulkLoader.Kind.CHARGES, new StringReader(
+        "Ladder,1.99,true,true,false\n"
+            + "Saw,1.999,true,true,false\n"
+            + "Ladder,2.99,true,true,false\n"), "charges");
+    loader.load(BulkLoader.Kind.TOOLS, new StringReader("LADW,Ladder,Werner\n"), "tools");
+
+    BulkLoader.Result result = loader.load(BulkLoader.Kind.RENTALS, new StringReader(
+        "LADW,3,10,2020-07-02\n"
+            + "\n"
+            + "NOPE,3,10,2020-07-02\n"
+            + "LADW,0,10,2020-07-02\n"
+            + "LADW,3,101,2020-07-02\n"
+            + "LADW,3,10,2020-02-30\n"
+            + "LADW,3,10\n"), "rentals");
+
+    Assert.assertEquals(1, result.getRows());
+    Assert.assertEquals(5, result.getRejects().size());
+    Assert.assertTrue(result.getRejects().get(0).startsWith("rentals:3: Unknown tool code NOPE"));
+    Assert.assertEquals(1, count("Charges"));
+    Assert.assertEquals(1, count("Rental"));
+  }
+
+  @Test
+  public void testHolidaysLimitedToCalendars() throws Exception {
+    BulkLoader.Result result = new BulkLoader().load(BulkLoader.Kind.HOLIDAYS, new StringReader(
+        "Independence Day,true,JULY,4,true,false,null,0\n"
+            + "Patriots' Day,false,APRIL,0,false,true,MONDAY,3,US-MA;US-ME\n"
+            + "Evacuation Day,true,MARCH,17,false,false,null,0,US-MA,US-ME\n"), "holidays");
+
+    Assert.assertEquals(2, result.getRows());
+    Assert.assertEquals(1, result.getRejects().size());
+    Assert.assertTrue(HolidayCalendar.isKnown("US-ME"));
+    Assert.assertFalse(HolidayCalendar.isKnown("US-NH"));
+    Assert.assertFalse(Holiday.isAHoliday(LocalDate.of(2031, 4, 21)));
+    Assert.assertTrue(HolidayCalendar.forName("US-MA").isHoliday(LocalDate.of(2031, 4, 21)));
+    Assert.assertTrue(HolidayCalendar.forName("US-ME").isHoliday(LocalDate.of(2031, 7, 4)));
+  }
+}
@@ -0,0 +1,274 @@
+package org.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.Test;
+import org.rental.RentalTransaction;
+
+public class HolidayCalendarTest {
+
+  private final List<Holiday> rules = Arrays.asList(
+      new Holiday("New Year's Day", true, Month.JANUARY, 1, false, false, null, 0),
+      new Holiday("Independence Day", true, Month.JULY, 4, true, false, null, 0),
+      new Holiday("Labor Day", false, Month.SEPTEMBER, 0, false, true, DayOfWeek.MONDAY, 1),
+      new Holiday("Christmas Day", true, Month.DECEMBER, 25, false, false, null, 0));
+
+  private static boolean isSet(long[] bitmap, LocalDate date) {
+    int bit = date.getDayOfYear() - 1;
+    return (bitmap[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  private static int countSet(long[] bitmap) {
+    int count = 0;
+    for (long word : bitmap) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  @Test
+  public void testResolveYear() {
+    long[] bitmap = HolidayCalendar.resolveYear(2020, rules);
+
+    assertEquals(4, countSet(bitmap));
+    assertTrue(isSet(bitmap, LocalDate.of(2020, 1, 1)));
+    assertTrue(isSet(bitmap, LocalDate.of(2020, 7, 3)));
+    assertFalse(isSet(bitmap, LocalDate.of(2020, 7, 4)));
+    assertTrue(isSet(bitmap, LocalDate.of(2020, 9, 7)));
+    assertTrue(isSet(bitmap, LocalDate.of(2020, 12, 25)));
+  }
+
+  @Test
+  public void testResolveLastDayOfLeapYear() {
+    List<Holiday> edgeRules = Arrays.asList(
+        new Holiday("New Year's Eve", true, Month.DECEMBER, 31, false, false, null, 0));
+
+    long[] bitmap = HolidayCalendar.resolveYear(2024, edgeRules);
+
+    assertEquals(1, countSet(bitmap));
+    assertTrue(isSet(bitmap, LocalDate.of(2024, 12, 31)));
+  }
+
+  @Test
+  public void testObservanceAcrossYearBoundary() {
+    List<Holiday> observedNewYear = Arrays.asList(
+        new Holiday("Observed New Year", true, Month.JANUARY, 1, true, false, null, 0));
+
+    // January 1st 2022 is a Saturday, so it is observed on Friday December 31st 2021.
+    assertTrue(isSet(HolidayCalendar.resolveYear(2021, observedNewYear), LocalDate.of(2021, 12, 31)));
+    assertEquals(0, countSet(HolidayCalendar.resolveYear(2022, observedNewYear)));
+  }
+
+  @Test
+  public void testConcurrentMissesShareOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch waiting = new CountDownLatch(1);
+    HolidayCalendar calendar = new HolidayCalendar(new HolidayRuleRepository(() -> {
+      loads.incrementAndGet();
+      try {
+        waiting.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return rules;
+    }, () -> new long[] {rules.size(), 4, 0}, Duration.ofHours(1)));
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> calendar.isHoliday(LocalDate.of(2031, 7, 4))));
+      }
+      Thread.sleep(200);
+      waiting.countDown();
+
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(1, loads.get());
+    assertFalse(calendar.isHoliday(LocalDate.of(2031, 7, 5)));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testChangedTableIsReloaded() {
+    AtomicInteger loads = new AtomicInteger();
+    long[] signature = {rules.size(), 4, 0};
+    List<Holiday> table = new ArrayList<>(rules);
+    HolidayRuleRepository repository = new HolidayRuleRepository(() -> {
+      loads.incrementAndGet();
+      return table;
+    }, () -> signature.clone(), Duration.ZERO);
+    HolidayCalendar calendar = new HolidayCalendar(repository);
+
+    assertFalse(calendar.isHoliday(LocalDate.of(2031, 3, 17)));
+    repository.refresh();
+    assertEquals(1, loads.get());
+
+    table.add(new Holiday("St. Patrick's Day", true, Month.MARCH, 17, false, false, null, 0));
+    signature[0]++;
+    signature[1]++;
+    repository.refresh();
+
+    assertEquals(2, loads.get());
+    assertTrue(calendar.isHoliday(LocalDate.of(2031, 3, 17)));
+    assertTrue(calendar.isHoliday(LocalDate.of(2031, 7, 4)));
+  }
+
+  @Test
+  public void testCachedYearsFollowBackgroundChecks() throws Exception {
+    long[] signature = {rules.size(), 4, 0};
+    List<Holiday> table = new ArrayList<>(rules);
+    HolidayRuleRepository repository = new HolidayRuleRepository(() -> new ArrayList<>(table),
+        () -> signature.clone(), Duration.ofMillis(10), true);
+    HolidayCalendar calendar = new HolidayCalendar(repository);
+    try {
+      assertFalse(calendar.isHoliday(LocalDate.of(2031, 3, 17)));
+
+      table.add(new Holiday("St. Patrick's Day", true, Month.MARCH, 17, false, false, null, 0));
+      signature[0]++;
+      signature[1]++;
+
+      long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+      while (!calendar.isHoliday(LocalDate.of(2031, 3, 17)) && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertTrue(calendar.isHoliday(LocalDate.of(2031, 3, 17)));
+    } finally {
+      repository.stopAutoRefresh();
+    }
+  }
+
+  @Test
+  public void testDatesOfSupersededRulesAreNotShared() {
+    Holiday before = new Holiday("Founders' Day", true, Month.MARCH, 17, false, false, null, 0);
+    before.setHolidayId(99L);
+    new HolidayRuleSet(List.of(before), 1, 99, 0);
+    Holiday after = new Holiday("Founders' Day", true, Month.MARCH, 18, false, false, null, 0);
+    after.setHolidayId(99L);
+    new HolidayRuleSet(List.of(after), 1, 99, 1);
+
+    // A thread still resolving the old rule set caches its date only in that set.
+    assertEquals(LocalDate.of(2031, 3, 17), before.getHoliday(Year.of(2031)));
+    assertEquals(LocalDate.of(2031, 3, 18), after.getHoliday(Year.of(2031)));
+  }
+
+  @Test
+  public void testInMemoryCalendarLoadsUnpublishedRulesOnce() {
+    AtomicInteger loads = new AtomicInteger();
+    HolidayRuleRepository repository = new HolidayRuleRepository(() -> {
+      loads.incrementAndGet();
+      return rules;
+    }, () -> new long[] {rules.size(), 4, 0}, Duration.ofHours(1));
+    HolidayCalendar calendar = new HolidayCalendar(HolidayCalendar.DEFAULT_NAME, repository,
+        false);
+
+    assertTrue(calendar.isHoliday(LocalDate.of(2031, 7, 4)));
+    assertTrue(calendar.isHoliday(LocalDate.of(2032, 7, 5)));
+    assertEquals(1, loads.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownCalendarIsRefused() {
+    HolidayCalendar.inMemory("NO-SUCH-CALENDAR");
+  }
+
+  @Test
+  public void testNamedCalendarCheckoutBeforeRulesAreLoaded() {
+    Session session = HibernateUtil.getSession();
+    Transaction transaction = session.beginTransaction();
+    try {
+      Charges ladder = new Charges("Ladder", new BigDecimal("1.99"), true, true, false);
+      session.save(ladder);
+      session.save(new Tool("LADM", ladder, Brand.WERNER));
+      Holiday patriotsDay = new Holiday("Patriots' Day", false, Month.APRIL, 0, false, true,
+          DayOfWeek.MONDAY, 3);
+      patriotsDay.setCalendars(new HashSet<>(Arrays.asList("US-MA")));
+      session.save(patriotsDay);
+      HolidayRuleRepository.getDefault().unpublish();
+
+      // Monday April 21st 2031 is Patriots' Day, which the ladder is not charged for.
+      RentalTransaction checkout = new RentalTransaction();
+      checkout.Checkout("LADM", 3, 0, LocalDate.of(2031, 4, 21), "US-MA");
+
+      assertEquals(2, checkout.getRentalAgreement().getChargeDays());
+      assertTrue(HolidayCalendar.isKnown("US-MA"));
+      assertFalse(HolidayCalendar.isKnown("US-NH"));
+    } finally {
+      transaction.rollback();
+      session.close();
+      HolidayRuleRepository.getDefault().unpublish();
+      HolidayCalendar.getDefault().invalidate();
+    }
+  }
+
+  @Test
+  public void testCalendarsWithTheSameRulesShareYears() {
+    Holiday patriotsDay = new Holiday("Patriots' Day", false, Month.APRIL, 0, false, true,
+        DayOfWeek.MONDAY, 3);
+    patriotsDay.setCalendars(new HashSet<>(Arrays.asList("US-MA", "US-ME")));
+    List<Holiday> table = new ArrayList<>(rules);
+    table.add(patriotsDay);
+    HolidayRuleRepository repository = new HolidayRuleRepository(() -> table,
+        () -> new long[] {table.size(), 5, 0}, Duration.ofHours(1));
+
+    HolidayCalendar us = new HolidayCalendar(repository);
+    HolidayCalendar massachusetts = new HolidayCalendar("US-MA", repository);
+    HolidayCalendar maine = new HolidayCalendar("US-ME", repository);
+
+    assertFalse(us.isHoliday(LocalDate.of(2031, 4, 21)));
+    assertTrue(massachusetts.isHoliday(LocalDate.of(2031, 4, 21)));
+    assertTrue(maine.isHoliday(LocalDate.of(2031, 4, 21)));
+    assertTrue(maine.isHoliday(LocalDate.of(2031, 7, 4)));
+    assertSame(massachusetts.getYears(), maine.getYears());
+    assertSame(massachusetts.getYearBitmap(2031), maine.getYearBitmap(2031));
+    assertNotSame(us.getYears(), maine.getYears());
+  }
+
+  @Test
+  public void testHolidaysBetween() {
+    HolidayCalendar calendar = new HolidayCalendar(new HolidayRuleRepository(() -> rules,
+        () -> new long[] {rules.size(), 4, 0}, Duration.ofHours(1)));
+
+    HolidayIndex holidays = calendar.holidaysBetween(LocalDate.of(2020, 7, 3),
+        LocalDate.of(2021, 7, 3));
+
+    assertEquals(Arrays.asList(LocalDate.of(2020, 7, 3), LocalDate.of(2020, 9, 7),
+        LocalDate.of(2020, 12, 25), LocalDate.of(2021, 1, 1)), holidays.toList());
+    assertTrue(holidays.contains(LocalDate.of(2020, 12, 25)));
+    assertFalse(holidays.contains(LocalDate.of(2020, 12, 26)));
+    assertEquals(2, holidays.countBetween(LocalDate.of(2020, 9, 7), LocalDate.of(2021, 1, 1)));
+    assertEquals(0, holidays.countBetween(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 1, 1)));
+    assertEquals(0, calendar.holidaysBetween(LocalDate.of(2020, 7, 4), LocalDate.of(2020, 9, 7))
+        .size());
+    assertEquals(calendar.countHolidays(LocalDate.of(2020, 1, 1), LocalDate.of(2030, 1, 1), false)
+        + calendar.countHolidays(LocalDate.of(2020, 1, 1), LocalDate.of(2030, 1, 1), true),
+        calendar.holidaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2030, 1, 1)).size());
+  }
+}
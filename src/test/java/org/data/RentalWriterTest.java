@@ -0,0 +1,109 @@
+package org.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.hibernate.HibernateUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RentalWriterTest {
+
+  private RentalWriter writer;
+  private Tool ladder;
+
+  @Before
+  public void setUp() {
+    HibernateUtil.inTransaction(session -> {
+      session.save(new Charges("Ladder", new BigDecimal("1.99"), true, true, false));
+      session.flush();
+      session.save(new Tool("LADW", "Ladder", Brand.WERNER));
+      return null;
+    });
+    ladder = ToolCatalog.reload().getTool("LADW");
+    writer = new RentalWriter(8);
+  }
+
+  @After
+  public void tearDown() {
+    writer.close();
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+      session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+      session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+      return null;
+    });
+    ToolCatalog.reload();
+    HibernateUtil.closeSession();
+  }
+
+  @Test
+  public void testEverySubmittedRentalIsStored() throws Exception {
+    List<CompletableFuture<Rental>> stored = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      stored.add(writer.submit(new Rental(ladder, i + 1, 0, LocalDate.of(2023, 5, 16))));
+    }
+
+    Set<Long> ids = new HashSet<>();
+    for (CompletableFuture<Rental> future : stored) {
+      ids.add(future.get().getRentalId());
+    }
+
+    Assert.assertEquals(20, ids.size());
+    Assert.assertFalse(ids.contains(0L));
+    Assert.assertEquals(Long.valueOf(20), HibernateUtil.inNewSession(session -> session
+        .createQuery("SELECT count(r) FROM Rental r", Long.class).getSingleResult()));
+  }
+
+  @Test
+  public void testFailedBatchCompletesExceptionally() throws Exception {
+    Tool unsaved = new Tool("NOPE", "Ladder", Brand.WERNER);
+    CompletableFuture<Rental> stored = writer.submit(new Rental(unsaved, 3, 0,
+        LocalDate.of(2023, 5, 16)));
+
+    try {
+      stored.get();
+      Assert.fail("A rental for an unsaved tool should not be stored");
+    } catch (ExecutionException ex) {
+      Assert.assertTrue(ex.getCause() instanceof RuntimeException);
+    }
+  }
+
+  @Test
+  public void testFailedRentalDoesNotFailItsBatch() throws Exception {
+    Tool unsaved = new Tool("NOPE", "Ladder", Brand.WERNER);
+    List<CompletableFuture<Rental>> stored = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Tool tool = i == 3 ? unsaved : ladder;
+      stored.add(writer.submit(new Rental(tool, i + 1, 0, LocalDate.of(2023, 5, 16))));
+    }
+
+    for (int i = 0; i < 6; i++) {
+      try {
+        Assert.assertNotEquals(0, stored.get(i).get().getRentalId());
+        Assert.assertNotEquals(3, i);
+      } catch (ExecutionException ex) {
+        Assert.assertEquals(3, i);
+      }
+    }
+    Assert.assertEquals(Long.valueOf(5), HibernateUtil.inNewSession(session -> session
+        .createQuery("SELECT count(r) FROM Rental r", Long.class).getSingleResult()));
+  }
+
+  @Test
+  public void testClosedWriterRejectsRentals() {
+    writer.close();
+
+    CompletableFuture<Rental> stored = writer.submit(new Rental(ladder, 3, 0,
+        LocalDate.of(2023, 5, 16)));
+
+    Assert.assertTrue(stored.isCompletedExceptionally());
+  }
+}
@@ -0,0 +1,138 @@
+package org.data;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hibernate.HibernateUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ToolAvailabilityTest {
+
+  private final ToolAvailability availability = new ToolAvailability();
+
+  @Test
+  public void testOverlappingReservationsAreRefused() {
+    Assert.assertTrue(availability.reserve("LADW", LocalDate.of(2031, 7, 2),
+        LocalDate.of(2031, 7, 5)));
+
+    Assert.assertFalse(availability.reserve("LADW", LocalDate.of(2031, 7, 4),
+        LocalDate.of(2031, 7, 8)));
+    Assert.assertFalse(availability.reserve("LADW", LocalDate.of(2031, 6, 30),
+        LocalDate.of(2031, 7, 3)));
+    Assert.assertFalse(availability.reserve("LADW", LocalDate.of(2031, 7, 1),
+        LocalDate.of(2031, 7, 9)));
+    Assert.assertFalse(availability.isAvailable("LADW", LocalDate.of(2031, 7, 3),
+        LocalDate.of(2031, 7, 4)));
+
+    // The due date is free again, and other tools are unaffected.
+    Assert.assertTrue(availability.reserve("LADW", LocalDate.of(2031, 7, 5),
+        LocalDate.of(2031, 7, 6)));
+    Assert.assertTrue(availability.reserve("LADW", LocalDate.of(2031, 6, 30),
+        LocalDate.of(2031, 7, 2)));
+    Assert.assertTrue(availability.reserve("CHNS", LocalDate.of(2031, 7, 2),
+        LocalDate.of(2031, 7, 5)));
+
+    availability.release("LADW", LocalDate.of(2031, 7, 2), LocalDate.of(2031, 7, 5));
+    Assert.assertTrue(availability.reserve("LADW", LocalDate.of(2031, 7, 3),
+        LocalDate.of(2031, 7, 4)));
+  }
+
+  @Test
+  public void testConcurrentReservationsOfOneToolHaveOneWinner() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        LocalDate from = LocalDate.of(2031, 7, 1).plusDays(i % 3);
+        results.add(executor.submit(() -> {
+          start.await();
+          return availability.reserve("JAKD", from, from.plusDays(5));
+        }));
+      }
+      start.countDown();
+
+      int winners = 0;
+      for (Future<Boolean> result : results) {
+        winners += result.get() ? 1 : 0;
+      }
+      Assert.assertEquals(1, winners);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRebuiltFromStoredRentals() throws Exception {
+    HibernateUtil.inTransaction(session -> {
+      session.persist(new Charges("Ladder", new BigDecimal("1.99"), true, true, false));
+      session.flush();
+      session.persist(new Tool("LADW", "Ladder", Brand.WERNER));
+      return null;
+    });
+    try {
+      new BulkLoader().load(BulkLoader.Kind.RENTALS,
+          new StringReader("LADW,3,0,2031-07-02\nLADW,4,0,2031-07-04\n"), "rentals");
+
+      availability.rebuild();
+
+      Assert.assertFalse(availability.isAvailable("LADW", LocalDate.of(2031, 7, 2),
+          LocalDate.of(2031, 7, 3)));
+      Assert.assertFalse(availability.isAvailable("LADW", LocalDate.of(2031, 7, 7),
+          LocalDate.of(2031, 7, 8)));
+      Assert.assertTrue(availability.isAvailable("LADW", LocalDate.of(2031, 7, 8),
+          LocalDate.of(2031, 7, 10)));
+      Assert.assertTrue(availability.isAvailable("CHNS", LocalDate.of(2031, 7, 2),
+          LocalDate.of(2031, 7, 10)));
+    } finally {
+      HibernateUtil.inTransaction(session -> {
+        session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+        session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+        session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+        return null;
+      });
+      ToolCatalog.reload();
+      HibernateUtil.closeSession();
+    }
+  }
+
+  @Test
+  public void testBulkLoadedRentalsAreReserved() throws Exception {
+    HibernateUtil.inTransaction(session -> {
+      session.persist(new Charges("Ladder", new BigDecimal("1.99"), true, true, false));
+      session.flush();
+      session.persist(new Tool("LADW", "Ladder", Brand.WERNER));
+      return null;
+    });
+    ToolAvailability defaultIndex = ToolAvailability.getDefault();
+    try {
+      new BulkLoader(2, 3).load(BulkLoader.Kind.RENTALS, new StringReader(
+          "LADW,3,0,2031-07-02\nLADW,2,0,2031-08-02\nLADW,1,0,2031-09-02\n"
+              + "LADW,1,0,2031-10-02\n"), "rentals");
+
+      Assert.assertFalse(defaultIndex.isAvailable("LADW", LocalDate.of(2031, 7, 4),
+          LocalDate.of(2031, 7, 5)));
+      Assert.assertFalse(defaultIndex.isAvailable("LADW", LocalDate.of(2031, 10, 2),
+          LocalDate.of(2031, 10, 3)));
+      Assert.assertFalse(defaultIndex.reserve("LADW", LocalDate.of(2031, 8, 1),
+          LocalDate.of(2031, 8, 3)));
+    } finally {
+      HibernateUtil.inTransaction(session -> {
+        session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+        session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+        session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+        return null;
+      });
+      ToolCatalog.reload();
+      defaultIndex.rebuild();
+      HibernateUtil.closeSession();
+    }
+  }
+}
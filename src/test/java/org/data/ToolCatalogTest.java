@@ -0,0 +1,80 @@
+package org.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hibernate.HibernateUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ToolCatalogTest {
+
+  @Before
+  public void setUp() {
+    HibernateUtil.inTransaction(session -> {
+      session.save(new Charges("Ladder", new BigDecimal("1.99"), true, true, false));
+      session.flush();
+      session.save(new Tool("LADW", "Ladder", Brand.WERNER));
+      return null;
+    });
+  }
+
+  @After
+  public void tearDown() {
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+      session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+      return null;
+    });
+    ToolCatalog.reload();
+    HibernateUtil.closeSession();
+  }
+
+  @Test
+  public void testReloadPublishesNewSnapshot() {
+    ToolCatalog before = ToolCatalog.current();
+    ToolCatalog after = ToolCatalog.reload();
+
+    Assert.assertTrue(after.getVersion() > before.getVersion());
+    Assert.assertSame(after, ToolCatalog.current());
+    Assert.assertEquals(Brand.WERNER, after.getTool("LADW").getToolBrand());
+    Assert.assertEquals(new BigDecimal("1.99"), after.getCharges("Ladder").getDailyRate());
+    Assert.assertSame(after.getCharges("Ladder"), after.getTool("LADW").getType());
+  }
+
+  @Test
+  public void testRateChangeAppliesOnReload() {
+    ToolCatalog before = ToolCatalog.reload();
+
+    HibernateUtil.inTransaction(session -> session.createMutationQuery(
+            "UPDATE Charges c SET c.dailyRate = :rate WHERE c.toolType = 'Ladder'")
+        .setParameter("rate", new BigDecimal("2.49")).executeUpdate());
+
+    Assert.assertEquals(new BigDecimal("1.99"), before.getCharges("Ladder").getDailyRate());
+    Assert.assertEquals(new BigDecimal("2.49"),
+        ToolCatalog.reload().getCharges("Ladder").getDailyRate());
+  }
+
+  @Test
+  public void testRentalUsesCatalogTool() {
+    ToolCatalog catalog = ToolCatalog.reload();
+
+    Rental rental = new Rental("LADW", 3, 0, LocalDate.of(2023, 5, 16));
+    Assert.assertSame(catalog.getTool("LADW"), rental.getTool());
+  }
+
+  @Test
+  public void testToolQueryIsServedFromSecondLevelCache() {
+    Assert.assertNotNull(Rental.processToolQuery("LADW"));
+    long queryCacheHits = HibernateUtil.getStatistics().getQueryCacheHitCount();
+    long queries = HibernateUtil.getStatistics().getQueryExecutionCount();
+
+    Tool tool = Rental.processToolQuery("LADW");
+
+    Assert.assertEquals("LADW", tool.getCode());
+    Assert.assertEquals(queryCacheHits + 1, HibernateUtil.getStatistics().getQueryCacheHitCount());
+    Assert.assertEquals(queries, HibernateUtil.getStatistics().getQueryExecutionCount());
+    Assert.assertTrue(HibernateUtil.getCacheStatisticsReport().contains("tool: hits="));
+  }
+}
@@ -0,0 +1,71 @@
+package org.hibernate;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HibernateUtilTest {
+
+  @After
+  public void tearDown() {
+    HibernateUtil.closeSession();
+  }
+
+  @Test
+  public void testGetSessionIsBoundToThread() throws Exception {
+    Session session = HibernateUtil.getSession();
+    Assert.assertSame(session, HibernateUtil.getSession());
+
+    Session otherThreadSession = CompletableFuture.supplyAsync(() -> {
+      Session other = HibernateUtil.getSession();
+      HibernateUtil.closeSession();
+      return other;
+    }).get();
+
+    Assert.assertNotSame(session, otherThreadSession);
+    Assert.assertFalse(otherThreadSession.isOpen());
+    Assert.assertTrue(session.isOpen());
+  }
+
+  @Test
+  public void testInSessionJoinsBoundSession() {
+    Session session = HibernateUtil.getSession();
+
+    Assert.assertSame(session, HibernateUtil.inSession(inner -> inner));
+    Assert.assertTrue(session.isOpen());
+  }
+
+  @Test
+  public void testInSessionClosesItsOwnSession() {
+    Session session = HibernateUtil.inSession(inner -> {
+      Assert.assertSame(inner, HibernateUtil.getSession());
+      return inner;
+    });
+
+    Assert.assertFalse(session.isOpen());
+    Assert.assertNotSame(session, HibernateUtil.getSession());
+  }
+
+  @Test
+  public void testInTransactionRollsBackOnFailure() {
+    Session session = HibernateUtil.getSession();
+
+    Assert.assertThrows(IllegalStateException.class, () -> HibernateUtil.inTransaction(inner -> {
+      Assert.assertTrue(inner.getTransaction().isActive());
+      throw new IllegalStateException("failed unit of work");
+    }));
+    Assert.assertFalse(session.getTransaction().isActive());
+  }
+
+  @Test
+  public void testBootstrapIsSharedWithUnitsOfWork() {
+    CompletableFuture<Void> first = HibernateUtil.startBootstrap();
+    CompletableFuture<Void> second = HibernateUtil.startBootstrap();
+
+    Assert.assertTrue(HibernateUtil.inNewSession(Session::isOpen));
+    first.join();
+    second.join();
+    Assert.assertTrue(first.isDone() && second.isDone());
+  }
+}
@@ -0,0 +1,62 @@
+package org.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsTest {
+
+  @Test
+  public void testHistogramPercentiles() {
+    Histogram histogram = new Histogram();
+    for (long micros = 1; micros <= 1000; micros++) {
+      histogram.record(micros * 1_000);
+    }
+
+    Assert.assertEquals(1000, histogram.getCount());
+    Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+    Assert.assertEquals(1000, histogram.getMax(), 0.001);
+    Assert.assertEquals(500, histogram.get50thPercentile(), 500 * 0.125);
+    Assert.assertEquals(990, histogram.get99thPercentile(), 990 * 0.125);
+    Assert.assertTrue(histogram.get999thPercentile() <= histogram.getMax());
+  }
+
+  @Test
+  public void testBucketsCoverEveryValue() {
+    for (int bucket = 1; bucket < 488; bucket++) {
+      Assert.assertEquals(bucket, Histogram.bucketOf(Histogram.upperBound(bucket - 1) + 1));
+      Assert.assertEquals(bucket, Histogram.bucketOf(Histogram.upperBound(bucket)));
+    }
+    Assert.assertEquals(Long.MAX_VALUE, Histogram.upperBound(Histogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void testMetricsArePublishedOverJmx() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    Metrics metrics = new Metrics(server);
+    Counter hits = metrics.counter("test.hits");
+    Counter misses = metrics.counter("test.misses");
+    hits.add(3);
+    misses.increment();
+    metrics.ratio("test.hitRatio", hits, misses);
+
+    Assert.assertSame(hits, metrics.counter("test.hits"));
+    Assert.assertEquals(3L, server.getAttribute(Metrics.objectName("Counter", "test.hits"),
+        "Count"));
+    Assert.assertEquals(0.75, server.getAttribute(Metrics.objectName("Gauge", "test.hitRatio"),
+        "Value"));
+  }
+
+  @Test
+  public void testCheckoutPhasesAreRegistered() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    Class.forName("org.rental.RentalTransaction");
+
+    Assert.assertTrue(server.isRegistered(Metrics.objectName("Histogram", "checkout.chargeDays")));
+    Assert.assertTrue(server.isRegistered(Metrics.objectName("Histogram", "checkout.pricing")));
+    Assert.assertTrue(server.isRegistered(Metrics.objectName("Histogram", "checkout.store")));
+    Assert.assertTrue(server.isRegistered(Metrics.objectName("Gauge", "quote.cache.hitRatio")));
+  }
+}
@@ -0,0 +1,136 @@
+package org.rental;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import org.data.Brand;
+import org.data.Charges;
+import org.data.Rental;
+import org.data.Tool;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AgreementRendererTest {
+
+  private static final Locale[] LOCALES = {Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN,
+      Locale.UK, Locale.forLanguageTag("de-CH"), Locale.forLanguageTag("hi-IN"),
+      Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("fa-IR")};
+
+  private static RentalAgreement agreement(String rate, int days, int discount, LocalDate date) {
+    Charges charges = new Charges("Ladder", new BigDecimal(rate), true, true, false);
+    Tool tool = new Tool("LADW", charges, Brand.WERNER);
+    return new RentalAgreement(new Rental(tool, days, discount, date));
+  }
+
+  private static String concatenate(RentalAgreement agreement, Locale locale) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+    NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+    return
+        "Tool code: " + agreement.getToolCode() + "/n" +
+            "Tool type: " + agreement.getToolType() + "/n" +
+            "Tool brand: " + agreement.getBrand() + "/n" +
+            "Rental days: " + agreement.getNumberDays() + "/n" +
+            "Check out date: " + agreement.getCheckoutDate().format(formatter) + "/n" +
+            "Due date: " + agreement.getDueDate().format(formatter) + "/n" +
+            "Daily rental charge: " + format.format(agreement.getDailyCharge()) + "/n" +
+            "Charge Days: " + agreement.getChargeDays() + "/n" +
+            "Pre-discount charge: " + format.format(agreement.getPreDiscountCharge()) + "/n" +
+            "Discount percent: " + agreement.getDiscountPercent() + "%" + "/n"  +
+            "Discount amount: " + format.format(agreement.getDiscountAmount()) + "/n" +
+            "Final charge: " + format.format(agreement.getTotal());
+  }
+
+  @Test
+  public void testCurrencyFormatMatchesNumberFormat() {
+    SplittableRandom random = new SplittableRandom(7);
+    for (Locale locale : LOCALES) {
+      CurrencyFormat currencyFormat = new CurrencyFormat(locale);
+      NumberFormat numberFormat = NumberFormat.getCurrencyInstance(locale);
+
+      List<BigDecimal> amounts = new ArrayList<>(List.of(BigDecimal.ZERO, new BigDecimal("0.005"),
+          new BigDecimal("0.015"), new BigDecimal("-0.004"), new BigDecimal("-1234567.895"),
+          new BigDecimal("99999999999999999999.99")));
+      for (int i = 0; i < 500; i++) {
+        amounts.add(BigDecimal.valueOf(random.nextLong(-100_000_000_000L, 100_000_000_000L),
+            random.nextInt(0, 5)));
+      }
+
+      for (BigDecimal amount : amounts) {
+        Assert.assertEquals(locale + " " + amount, numberFormat.format(amount),
+            currencyFormat.format(amount));
+      }
+    }
+  }
+
+  @Test
+  public void testRenderMatchesConcatenatedReport() {
+    RentalAgreement agreement = agreement("1234.99", 400, 15, LocalDate.of(1999, 12, 30));
+    for (Locale locale : LOCALES) {
+      Assert.assertEquals(concatenate(agreement, locale),
+          AgreementRenderer.forLocale(locale).render(agreement));
+    }
+    Assert.assertEquals(concatenate(agreement, Locale.getDefault(Locale.Category.FORMAT)),
+        agreement.toString());
+  }
+
+  @Test
+  public void testRenderToByteBuffer() {
+    RentalAgreement agreement = agreement("2.99", 5, 25, LocalDate.of(2015, 7, 2));
+    AgreementRenderer renderer = AgreementRenderer.forLocale(Locale.FRANCE);
+    byte[] expected = renderer.render(agreement).getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    buffer.put((byte) '#');
+    renderer.render(agreement, buffer);
+    Assert.assertEquals(expected.length + 1, buffer.position());
+    buffer.flip().get();
+    byte[] actual = new byte[expected.length];
+    buffer.get(actual);
+    Assert.assertArrayEquals(expected, actual);
+
+    ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+    try {
+      renderer.render(agreement, small);
+      Assert.fail("The report should not fit");
+    } catch (BufferOverflowException ex) {
+      Assert.assertEquals(0, small.position());
+    }
+  }
+
+  @Test
+  public void testRenderAllToFileChannel() throws Exception {
+    AgreementRenderer renderer = AgreementRenderer.forLocale(Locale.GERMANY);
+    List<RentalAgreement> agreements = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      RentalAgreement agreement = agreement("1.99", i % 30 + 1, i % 101,
+          LocalDate.of(2020, 1, 1).plusDays(i));
+      agreements.add(agreement);
+      expected.append(renderer.render(agreement)).append(System.lineSeparator());
+    }
+
+    File file = File.createTempFile("agreements", ".txt");
+    file.deleteOnExit();
+    long written;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      written = renderer.renderAll(agreements, channel);
+    }
+
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Assert.assertEquals(bytes.length, written);
+    Assert.assertEquals(expected.toString(), new String(bytes, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,190 @@
+package org.rental;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import org.data.Holiday;
+import org.data.HolidayCalendar;
+import org.hibernate.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChargeDayCounterTest {
+
+  private Session session;
+  private Transaction transaction;
+  private final List<Rule> rules = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    session = HibernateUtil.getSession();
+    transaction = session.beginTransaction();
+    createTestData();
+  }
+
+  @After
+  public void tearDown() {
+    transaction.rollback();
+    session.close();
+  }
+
+  private void createTestData() throws IOException {
+    InputStream inputStream = getClass().getClassLoader()
+        .getResourceAsStream("holiday-test-data.txt");
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      String[] fields = line.split(",");
+
+      String name = fields[0];
+      boolean isFixedDate = Boolean.parseBoolean(fields[1]);
+      Month month = Month.valueOf(fields[2]);
+      int dayOfMonth = Integer.parseInt(fields[3]);
+      boolean followsWeekendObserv = Boolean.parseBoolean(fields[4]);
+      boolean followsPatternObserv = Boolean.parseBoolean(fields[5]);
+      DayOfWeek dayOfWeek = fields[6].equals("null") ? null : DayOfWeek.valueOf(fields[6]);
+      int weekNumForPattern = Integer.parseInt(fields[7]);
+
+      Holiday holiday = new Holiday(name, isFixedDate, month, dayOfMonth,
+          followsWeekendObserv, followsPatternObserv, dayOfWeek, weekNumForPattern);
+      session.save(holiday);
+      rules.add(new Rule(isFixedDate, month, dayOfMonth, followsWeekendObserv,
+          followsPatternObserv, dayOfWeek, weekNumForPattern));
+    }
+    reader.close();
+  }
+
+  /**
+   * The rules as the original day-by-day walk read them, so the count is checked against that
+   * walk rather than against the calendar being tested.
+   */
+  private static final class Rule {
+
+    private final boolean isFixedDate;
+    private final Month month;
+    private final int dayOfMonth;
+    private final boolean followsWeekendObserv;
+    private final boolean followsPatternObserv;
+    private final DayOfWeek dayOfWeek;
+    private final int weekNumForPattern;
+
+    private Rule(boolean isFixedDate, Month month, int dayOfMonth, boolean followsWeekendObserv,
+        boolean followsPatternObserv, DayOfWeek dayOfWeek, int weekNumForPattern) {
+      this.isFixedDate = isFixedDate;
+      this.month = month;
+      this.dayOfMonth = dayOfMonth;
+      this.followsWeekendObserv = followsWeekendObserv;
+      this.followsPatternObserv = followsPatternObserv;
+      this.dayOfWeek = dayOfWeek;
+      this.weekNumForPattern = weekNumForPattern;
+    }
+
+    private LocalDate getHoliday(Year year) {
+      LocalDate holiday = null;
+      if (isFixedDate) {
+        holiday = LocalDate.of(year.getValue(), month, dayOfMonth);
+        if (followsWeekendObserv && holiday.getDayOfWeek() == DayOfWeek.SATURDAY) {
+          holiday = holiday.minusDays(1);
+        } else if (followsWeekendObserv && holiday.getDayOfWeek() == DayOfWeek.SUNDAY) {
+          holiday = holiday.plusDays(1);
+        }
+      } else if (followsPatternObserv) {
+        LocalDate firstDay = LocalDate.of(year.getValue(), month, 1);
+        int daysToFirstOccurrence =
+            (dayOfWeek.getValue() - firstDay.getDayOfWeek().getValue() + 7) % 7;
+        holiday = firstDay.plusDays(daysToFirstOccurrence).plusWeeks(weekNumForPattern - 1);
+      }
+      return holiday;
+    }
+  }
+
+  /**
+   * Looks a date up the way the original walk queried the holiday table: pattern rules of the
+   * date's month, and fixed rules of the date's month within two days of it.
+   */
+  private boolean isAHoliday(LocalDate date) {
+    int day1 = Math.max(1, date.getDayOfMonth() - 2);
+    int day2 = Math.min(31, date.getDayOfMonth() + 2);
+    for (Rule rule : rules) {
+      boolean queried = rule.month == date.getMonth() && (rule.followsPatternObserv
+          || (rule.isFixedDate && rule.dayOfMonth >= day1 && rule.dayOfMonth <= day2));
+      if (queried && date.equals(rule.getHoliday(Year.of(date.getYear())))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int countByWalking(boolean weekdayCharge, boolean weekendCharge,
+      boolean holidayCharge, LocalDate checkoutDate, int days) {
+    int numberOfDays = 0;
+    for (int i = 0; i < days; i++) {
+      LocalDate dayToCheck = checkoutDate.plusDays(i);
+      boolean isAWeekend = dayToCheck.getDayOfWeek() == DayOfWeek.SATURDAY
+          || dayToCheck.getDayOfWeek() == DayOfWeek.SUNDAY;
+      boolean charged = holidayCharge || !isAHoliday(dayToCheck);
+
+      if (weekendCharge && isAWeekend && charged) {
+        numberOfDays++;
+      } else if (weekdayCharge && !isAWeekend && charged) {
+        numberOfDays++;
+      }
+    }
+    return numberOfDays;
+  }
+
+  @Test
+  public void testWalkSkipsKnownHolidays() {
+    // 2020: July 4 is a Saturday, observed Friday July 3; Labor Day is Monday September 7.
+    Assert.assertTrue(isAHoliday(LocalDate.of(2020, 7, 3)));
+    Assert.assertFalse(isAHoliday(LocalDate.of(2020, 7, 4)));
+    Assert.assertTrue(isAHoliday(LocalDate.of(2020, 9, 7)));
+    Assert.assertEquals(4, countByWalking(true, false, false, LocalDate.of(2020, 7, 1), 7));
+    Assert.assertEquals(4, ChargeDayCounter.countChargeDays(true, false, false,
+        LocalDate.of(2020, 7, 1), 7, HolidayCalendar.getDefault()));
+  }
+
+  @Test
+  public void testCountWeekendDays() {
+    Assert.assertEquals(0, ChargeDayCounter.countWeekendDays(DayOfWeek.MONDAY, 5));
+    Assert.assertEquals(1, ChargeDayCounter.countWeekendDays(DayOfWeek.MONDAY, 6));
+    Assert.assertEquals(2, ChargeDayCounter.countWeekendDays(DayOfWeek.SATURDAY, 2));
+    Assert.assertEquals(1, ChargeDayCounter.countWeekendDays(DayOfWeek.SUNDAY, 6));
+    Assert.assertEquals(3, ChargeDayCounter.countWeekendDays(DayOfWeek.FRIDAY, 9));
+    Assert.assertEquals(104, ChargeDayCounter.countWeekendDays(DayOfWeek.WEDNESDAY, 364));
+  }
+
+  @Test
+  public void testMatchesDayByDayCount() {
+    HolidayCalendar calendar = HolidayCalendar.getDefault();
+    int[] lengths = {1, 2, 3, 6, 7, 9, 31, 95, 366, 800};
+
+    LocalDate last = LocalDate.of(2021, 1, 10);
+
+    for (LocalDate checkout = LocalDate.of(2019, 12, 20); checkout.isBefore(last);
+        checkout = checkout.plusDays(3)) {
+      for (int days : lengths) {
+        for (int flags = 0; flags < 8; flags++) {
+          boolean weekday = (flags & 1) != 0;
+          boolean weekend = (flags & 2) != 0;
+          boolean holiday = (flags & 4) != 0;
+
+          Assert.assertEquals(checkout + " for " + days + " days, flags " + flags,
+              countByWalking(weekday, weekend, holiday, checkout, days),
+              ChargeDayCounter.countChargeDays(weekday, weekend, holiday, checkout, days, calendar));
+        }
+      }
+    }
+  }
+}
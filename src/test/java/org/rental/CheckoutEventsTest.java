@@ -0,0 +1,76 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.data.HolidayCalendar;
+import org.data.Rental;
+import org.hibernate.HibernateUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CheckoutEventsTest {
+
+  private final RateSnapshot ladder = new RateSnapshot("Ladder", new BigDecimal("1.99"), true,
+      false, false);
+
+  @Test
+  public void testQuotesAreRecorded() throws Exception {
+    QuoteCache cache = new QuoteCache(100, Duration.ofHours(1));
+    Path file = Files.createTempFile("checkout", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("org.checkout.Pricing").withoutThreshold();
+      recording.start();
+      cache.quote(ladder, 7, 10, LocalDate.of(2031, 3, 3), HolidayCalendar.getDefault());
+      cache.quote(ladder, 7, 10, LocalDate.of(2031, 3, 3), HolidayCalendar.getDefault());
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("org.checkout.Pricing"))
+          .collect(Collectors.toList());
+
+      Assert.assertEquals(2, events.size());
+      Assert.assertEquals("Ladder", events.get(0).getString("toolType"));
+      Assert.assertEquals("2031-03-03", events.get(0).getString("checkoutDate"));
+      Assert.assertEquals(7, events.get(0).getInt("days"));
+      Assert.assertEquals(5, events.get(0).getInt("chargeDays"));
+      Assert.assertEquals(HolidayCalendar.DEFAULT_NAME, events.get(0).getString("calendar"));
+      Assert.assertFalse(events.get(0).getBoolean("cacheHit"));
+      Assert.assertTrue(events.get(1).getBoolean("cacheHit"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testToolLookupQueriesAreCounted() throws Exception {
+    Path file = Files.createTempFile("checkout", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("org.checkout.ToolLookup").withoutThreshold();
+      recording.start();
+      HibernateUtil.inSession(session -> new Rental("UNKNOWN", 3, 0, LocalDate.of(2031, 3, 3)));
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("org.checkout.ToolLookup"))
+          .collect(Collectors.toList());
+
+      Assert.assertEquals(1, events.size());
+      Assert.assertFalse(events.get(0).getBoolean("catalogHit"));
+      Assert.assertFalse(events.get(0).getBoolean("found"));
+      Assert.assertTrue(events.get(0).getLong("queries") >= 1);
+    } finally {
+      Files.deleteIfExists(file);
+      HibernateUtil.closeSession();
+    }
+  }
+}
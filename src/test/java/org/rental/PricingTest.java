@@ -0,0 +1,105 @@
+package org.rental;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.data.Brand;
+import org.data.Charges;
+import org.data.Rental;
+import org.data.Tool;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PricingTest {
+
+  /**
+   * The discount as the original agreement calculated it, exactly, rounded half-up to the cent as
+   * agreements now are.
+   */
+  private static BigDecimal originalDiscount(BigDecimal preDiscountCharge, int discountPercent) {
+    return preDiscountCharge.multiply(BigDecimal.valueOf(discountPercent))
+        .divide(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private static void assertSameDiscount(long preDiscountCents, int discountPercent) {
+    BigDecimal expected = originalDiscount(BigDecimal.valueOf(preDiscountCents, 2),
+        discountPercent);
+    Assert.assertEquals(preDiscountCents + " at " + discountPercent + "%",
+        expected.unscaledValue().longValueExact(),
+        Pricing.discountCents(preDiscountCents, discountPercent));
+  }
+
+  @Test
+  public void testDiscountCentsMatchesOriginalDiscount() {
+    // Whether the discount rounds up depends only on the last two digits of the charge, so the
+    // charges below $100 cover every rounding case for every percent.
+    for (long preDiscountCents = 0; preDiscountCents < 10_000; preDiscountCents++) {
+      for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+        assertSameDiscount(preDiscountCents, discountPercent);
+      }
+    }
+
+    SplittableRandom random = new SplittableRandom(12);
+    for (int i = 0; i < 100_000; i++) {
+      assertSameDiscount(random.nextLong(0, 90_000_000_000_000L), random.nextInt(0, 101));
+    }
+  }
+
+  @Test
+  public void testDiscountRoundsHalfUp() {
+    Assert.assertEquals(150, Pricing.discountCents(299, 50));
+    Assert.assertEquals(new BigDecimal("1.50"), Pricing.discount(new BigDecimal("2.99"), 50));
+    Assert.assertEquals(1, Pricing.discountCents(1, 50));
+    Assert.assertEquals(0, Pricing.discountCents(1, 49));
+  }
+
+  @Test
+  public void testBothPathsMatchOriginalPricing() {
+    SplittableRandom random = new SplittableRandom(34);
+    for (int i = 0; i < 100_000; i++) {
+      long dailyRateCents = random.nextLong(0, 1_000_000);
+      int chargeDays = random.nextInt(0, 3651);
+      int discountPercent = random.nextInt(0, 101);
+
+      BigDecimal dailyRate = BigDecimal.valueOf(dailyRateCents, 2);
+      BigDecimal preDiscountCharge = dailyRate.multiply(BigDecimal.valueOf(chargeDays));
+      BigDecimal discount = originalDiscount(preDiscountCharge, discountPercent);
+      BigDecimal total = preDiscountCharge.subtract(discount);
+
+      long preDiscountCents = Pricing.preDiscountCents(dailyRateCents, chargeDays);
+      long discountCents = Pricing.discountCents(preDiscountCents, discountPercent);
+      Assert.assertEquals(0, preDiscountCharge.compareTo(Pricing.toAmount(preDiscountCents)));
+      Assert.assertEquals(0, discount.compareTo(Pricing.toAmount(discountCents)));
+      Assert.assertEquals(0, total.compareTo(Pricing.toAmount(preDiscountCents - discountCents)));
+
+      BigDecimal amount = Pricing.preDiscountCharge(dailyRate, chargeDays);
+      Assert.assertEquals(0, preDiscountCharge.compareTo(amount));
+      Assert.assertEquals(0, discount.compareTo(Pricing.discount(amount, discountPercent)));
+    }
+  }
+
+  @Test
+  public void testAgreementPricesWholeCentRatesInCents() {
+    Charges charges = new Charges("Ladder", new BigDecimal("2.99"), true, true, true);
+    RentalAgreement agreement = new RentalAgreement(new Rental(
+        new Tool("LADW", charges, Brand.WERNER), 3, 50, LocalDate.of(2023, 5, 16)));
+
+    Assert.assertEquals(897, agreement.getPreDiscountCents());
+    Assert.assertEquals(449, agreement.getDiscountCents());
+    Assert.assertEquals(448, agreement.getTotalCents());
+    Assert.assertEquals(new BigDecimal("4.48"), agreement.getTotal());
+  }
+
+  @Test
+  public void testAgreementPricesOtherRatesInBigDecimal() {
+    Charges charges = new Charges("Ladder", new BigDecimal("1.995"), true, true, true);
+    RentalAgreement agreement = new RentalAgreement(new Rental(
+        new Tool("LADW", charges, Brand.WERNER), 3, 10, LocalDate.of(2023, 5, 16)));
+
+    Assert.assertEquals(new BigDecimal("5.985"), agreement.getPreDiscountCharge());
+    Assert.assertEquals(new BigDecimal("0.60"), agreement.getDiscountAmount());
+    Assert.assertEquals(new BigDecimal("5.385"), agreement.getTotal());
+    Assert.assertEquals(538, agreement.getTotalCents());
+  }
+}
@@ -0,0 +1,79 @@
+package org.rental;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import org.data.BulkLoader;
+import org.data.HolidayCalendar;
+import org.hibernate.HibernateUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QuoteCacheTest {
+
+  private final RateSnapshot ladder = new RateSnapshot("Ladder", new BigDecimal("1.99"), true,
+      true, false);
+  private final HolidayCalendar calendar = HolidayCalendar.getDefault();
+
+  @Before
+  public void setUp() throws Exception {
+    new BulkLoader().load(BulkLoader.Kind.HOLIDAYS,
+        new StringReader("Independence Day,true,JULY,4,true,false,null,0\n"), "holidays");
+  }
+
+  @After
+  public void tearDown() {
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+      return null;
+    });
+    calendar.invalidate();
+    HibernateUtil.closeSession();
+  }
+
+  @Test
+  public void testRepeatedQuotesAreHits() {
+    QuoteCache cache = new QuoteCache(100, Duration.ofHours(1));
+    Quote first = cache.quote(ladder, 5, 10, LocalDate.of(2031, 7, 1), calendar);
+    Quote second = cache.quote(ladder, 5, 10, LocalDate.of(2031, 7, 1), calendar);
+    Quote other = cache.quote(ladder, 5, 20, LocalDate.of(2031, 7, 1), calendar);
+
+    Assert.assertSame(first, second);
+    Assert.assertNotSame(first, other);
+    Assert.assertEquals(4, first.getChargeDays());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testSizeAndTimeBounds() {
+    QuoteCache small = new QuoteCache(16, Duration.ofHours(1));
+    for (int days = 1; days <= 200; days++) {
+      small.quote(ladder, days, 0, LocalDate.of(2031, 7, 1), calendar);
+    }
+    Assert.assertTrue(small.size() <= 16);
+    Assert.assertEquals(200 - small.size(), small.getEvictionCount());
+
+    QuoteCache expired = new QuoteCache(100, Duration.ZERO);
+    expired.quote(ladder, 5, 10, LocalDate.of(2031, 7, 1), calendar);
+    expired.quote(ladder, 5, 10, LocalDate.of(2031, 7, 1), calendar);
+    Assert.assertEquals(0, expired.getHitCount());
+  }
+
+  @Test
+  public void testChangedHolidayRulesEmptyTheCache() throws Exception {
+    QuoteCache cache = new QuoteCache(100, Duration.ofHours(1));
+    Quote before = cache.quote(ladder, 5, 10, LocalDate.of(2031, 12, 22), calendar);
+
+    new BulkLoader().load(BulkLoader.Kind.HOLIDAYS,
+        new StringReader("Christmas Day,true,DECEMBER,25,false,false,null,0\n"), "holidays");
+    Quote after = cache.quote(ladder, 5, 10, LocalDate.of(2031, 12, 22), calendar);
+
+    Assert.assertEquals(5, before.getChargeDays());
+    Assert.assertEquals(4, after.getChargeDays());
+    Assert.assertEquals(0, cache.getHitCount());
+  }
+}
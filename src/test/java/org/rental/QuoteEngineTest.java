@@ -0,0 +1,74 @@
+package org.rental;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.data.BulkLoader;
+import org.data.HolidayCalendar;
+import org.hibernate.HibernateUtil;
+import org.junit.Assert;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
+import org.junit.Test;
+
+public class QuoteEngineTest {
+
+  private final RateSnapshot ladder = new RateSnapshot("Ladder", new BigDecimal("1.99"), true,
+      false, false);
+
+  @Test
+  public void testQuote() {
+    // March 2031 has no holidays, so only the weekend days of the week are free.
+    Quote quote = QuoteEngine.getDefault().quote(ladder, 7, 10, LocalDate.of(2031, 3, 3));
+
+    Assert.assertEquals(LocalDate.of(2031, 3, 10), quote.getDueDate());
+    Assert.assertEquals(5, quote.getChargeDays());
+    Assert.assertEquals(new BigDecimal("9.95"), quote.getPreDiscountCharge());
+    Assert.assertEquals(new BigDecimal("1.00"), quote.getDiscountAmount());
+    Assert.assertEquals(new BigDecimal("8.95"), quote.getTotal());
+    Assert.assertEquals(895, quote.getTotalCents());
+  }
+
+  @Test
+  public void testQuoteOverAHoliday() throws Exception {
+    new BulkLoader().load(BulkLoader.Kind.HOLIDAYS, new StringReader(
+        "Independence Day,true,JULY,4,true,false,null,0\n"), "holidays");
+    try {
+      // July 4th 2031 is a Friday, so the ladder is charged for the other four weekdays only.
+      Quote quote = QuoteEngine.getDefault().quote(ladder, 7, 0, LocalDate.of(2031, 6, 30));
+
+      Assert.assertEquals(4, quote.getChargeDays());
+      Assert.assertEquals(796, quote.getTotalCents());
+    } finally {
+      HibernateUtil.inTransaction(session -> {
+        session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+        return null;
+      });
+      HolidayCalendar.getDefault().invalidate();
+      HibernateUtil.closeSession();
+    }
+  }
+
+  @Test
+  public void testQuotesAreNotTimedAsCheckouts() {
+    Histogram chargeDays = Metrics.getDefault().histogram("checkout.chargeDays");
+    Histogram pricing = Metrics.getDefault().histogram("checkout.pricing");
+    long counted = chargeDays.getCount();
+    long priced = pricing.getCount();
+
+    QuoteEngine.price(ladder, 7, 10, LocalDate.of(2031, 3, 3), HolidayCalendar.getDefault());
+
+    Assert.assertEquals(counted, chargeDays.getCount());
+    Assert.assertEquals(priced, pricing.getCount());
+  }
+
+  @Test
+  public void testQuoteIsValidated() {
+    try {
+      QuoteEngine.getDefault().quote(ladder, 0, 10, LocalDate.of(2031, 3, 3));
+      Assert.fail();
+    } catch (RuntimeException ex) {
+      Assert.assertTrue(ex.getMessage().startsWith("The number of rental days is 0."));
+    }
+  }
+}
@@ -8,6 +8,8 @@ import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
 import org.data.Brand;
 import org.data.Charges;
 import org.data.Holiday;
@@ -20,6 +22,8 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.metrics.Histogram;
+import org.metrics.Metrics;
 
 public class RentalTransactionTest {
 
@@ -74,6 +78,96 @@ public class RentalTransactionTest {
     reader.close();
   }
 
+  private void createToolData() throws IOException {
+    InputStream inputStream = getClass().getClassLoader()
+        .getResourceAsStream("charges-test-data.txt");
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      String[] fields = line.split(",");
+
+      session.save(new Charges(fields[0], new BigDecimal(fields[1]),
+          Boolean.parseBoolean(fields[2]), Boolean.parseBoolean(fields[3]),
+          Boolean.parseBoolean(fields[4])));
+    }
+    reader.close();
+
+    inputStream = getClass().getClassLoader().getResourceAsStream("tool-test-data.txt");
+    reader = new BufferedReader(new InputStreamReader(inputStream));
+    while ((line = reader.readLine()) != null) {
+      String[] fields = line.split(",");
+
+      session.save(new Tool(fields[0], fields[1], Brand.getBrandFromString(fields[2])));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testCheckoutBatch() throws IOException {
+    createToolData();
+
+    List<RentalAgreement> agreements = new RentalTransaction().CheckoutBatch(Arrays.asList(
+        new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+        new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2)),
+        new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 9, 3)),
+        new CheckoutRequest("JARK", 4, 50, LocalDate.of(2020, 7, 2))));
+
+    Assert.assertEquals(4, agreements.size());
+    Assert.assertEquals("LADW", agreements.get(0).getToolCode());
+    Assert.assertEquals("$3.58", agreements.get(0).formatPrice(agreements.get(0).getTotal()));
+    Assert.assertEquals("$3.35", agreements.get(1).formatPrice(agreements.get(1).getTotal()));
+    Assert.assertEquals(3, agreements.get(2).getChargeDays());
+    Assert.assertEquals("$8.97", agreements.get(2).formatPrice(agreements.get(2).getTotal()));
+    Assert.assertEquals(1, agreements.get(3).getChargeDays());
+    Assert.assertEquals("$1.49", agreements.get(3).formatPrice(agreements.get(3).getTotal()));
+  }
+
+  @Test
+  public void testCheckoutPricingPhasesAreTimed() throws IOException {
+    createToolData();
+    Histogram chargeDays = Metrics.getDefault().histogram("checkout.chargeDays");
+    Histogram pricing = Metrics.getDefault().histogram("checkout.pricing");
+    Histogram total = Metrics.getDefault().histogram("checkout.total");
+    long counted = chargeDays.getCount();
+    long priced = pricing.getCount();
+    long checkedOut = total.getCount();
+
+    new RentalTransaction().Checkout("LADW", 3, 17, LocalDate.of(2041, 7, 2));
+
+    Assert.assertEquals(counted + 1, chargeDays.getCount());
+    Assert.assertEquals(priced + 1, pricing.getCount());
+    // A checkout that is never stored is still timed.
+    Assert.assertEquals(checkedOut + 1, total.getCount());
+  }
+
+  @Test
+  public void testCheckoutBatchValidatesEveryRequestFirst() {
+    RentalTransaction transaction = new RentalTransaction();
+
+    Assert.assertThrows(RuntimeException.class, () -> {
+      transaction.CheckoutBatch(Arrays.asList(
+          new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+          new CheckoutRequest("CHNS", 0, 25, LocalDate.of(2015, 7, 2))));
+    });
+  }
+
+  @Test
+  public void testCheckoutBatchRejectsUnknownToolsAndMissingDates() {
+    RentalTransaction transaction = new RentalTransaction();
+
+    CheckoutException unknown = Assert.assertThrows(CheckoutException.class, () -> {
+      transaction.CheckoutBatch(Arrays.asList(
+          new CheckoutRequest("NOPE", 3, 10, LocalDate.of(2020, 7, 2))));
+    });
+    Assert.assertEquals("Unknown tool code: NOPE", unknown.getMessage());
+
+    CheckoutException undated = Assert.assertThrows(CheckoutException.class, () -> {
+      transaction.CheckoutBatch(Arrays.asList(new CheckoutRequest("LADW", 3, 10, null)));
+    });
+    Assert.assertEquals("The checkout request for tool LADW has no checkout date",
+        undated.getMessage());
+  }
+
   @Test
   public void testCheckoutThrows() {
 
@@ -187,8 +281,8 @@ public class RentalTransactionTest {
   }
 
   private class HolidayForTest extends Holiday{
-    public static void addHoliday(String name, LocalDate holiday){
-      Holiday.holidayDateCache.put(name, holiday);
+    public static void addHoliday(long holidayId, LocalDate holiday){
+      Holiday.holidayDateCache.put(getKey(holidayId, holiday.getYear()), holiday);
     }
   }
 
@@ -0,0 +1,122 @@
+package org.rental;
+
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.data.BulkLoader;
+import org.data.HolidayCalendar;
+import org.data.Rental;
+import org.data.ToolAvailability;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepricingJobTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  private static void load(BulkLoader.Kind kind, String resource) throws Exception {
+    new BulkLoader().load(kind, new InputStreamReader(
+        RepricingJobTest.class.getClassLoader().getResourceAsStream(resource)), resource);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    load(BulkLoader.Kind.CHARGES, "charges-test-data.txt");
+    load(BulkLoader.Kind.TOOLS, "tool-test-data.txt");
+    load(BulkLoader.Kind.HOLIDAYS, "holiday-test-data.txt");
+    load(BulkLoader.Kind.RENTALS, "rental-test-data.txt");
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+      session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+      session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+      session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+      return null;
+    });
+    ToolCatalog.reload();
+    HolidayCalendar.getDefault().invalidate();
+    ToolAvailability.getDefault().rebuild();
+    HibernateUtil.closeSession();
+  }
+
+  private static Map<Long, RentalAgreement> storedAgreements() {
+    return HibernateUtil.inNewSession(session -> {
+      Map<Long, RentalAgreement> agreements = new HashMap<>();
+      for (Rental rental : session.createQuery("SELECT r FROM Rental r JOIN FETCH r.tool t "
+          + "JOIN FETCH t.type", Rental.class).getResultList()) {
+        agreements.put(rental.getRentalId(), new RentalAgreement(rental));
+      }
+      return agreements;
+    });
+  }
+
+  @Test
+  public void testRepricedRentalsMatchTheirAgreements() {
+    List<RepricingJob.Repriced> repriced = new ArrayList<>();
+    List<RepricingJob.Result> progress = new ArrayList<>();
+
+    RepricingJob.Result result = new RepricingJob(2, 2, pool).run(repriced::addAll,
+        progress::add);
+
+    Map<Long, RentalAgreement> agreements = storedAgreements();
+    Assert.assertEquals(agreements.size(), result.getRows());
+    Assert.assertEquals(agreements.size(), repriced.size());
+    Assert.assertEquals((agreements.size() + 1) / 2, progress.size());
+
+    long totalCents = 0;
+    for (RepricingJob.Repriced rental : repriced) {
+      RentalAgreement agreement = agreements.get(rental.getRentalId());
+      Assert.assertEquals(agreement.getToolCode(), rental.getToolCode());
+      Assert.assertEquals(agreement.getBrand(), rental.getBrand().name());
+      Assert.assertEquals(agreement.getChargeDays(), rental.getQuote().getChargeDays());
+      Assert.assertEquals(agreement.getTotal(), rental.getQuote().getTotal());
+      totalCents += rental.getQuote().getTotalCents();
+    }
+    Assert.assertEquals(totalCents, result.getTotalCents());
+  }
+
+  @Test
+  public void testWhatIfRates() {
+    RateSnapshot freeLadders = new RateSnapshot("Ladder", BigDecimal.ZERO, true, true, false);
+    List<RepricingJob.Repriced> repriced = new ArrayList<>();
+
+    new RepricingJob(2, 3, pool).run(Collections.singletonMap("Ladder", freeLadders),
+        repriced::addAll, null);
+
+    Map<Long, RentalAgreement> agreements = storedAgreements();
+    Assert.assertEquals(agreements.size(), repriced.size());
+    for (RepricingJob.Repriced rental : repriced) {
+      RentalAgreement agreement = agreements.get(rental.getRentalId());
+      if (agreement.getToolType().equals("Ladder")) {
+        Assert.assertEquals(0, rental.getQuote().getTotalCents());
+      } else {
+        Assert.assertEquals(agreement.getTotal(), rental.getQuote().getTotal());
+      }
+    }
+  }
+
+  @Test
+  public void testErrorInAWorkerFailsTheJob() {
+    try {
+      new RepricingJob(2, 2, pool).run(batch -> {
+        throw new StackOverflowError();
+      }, null);
+      Assert.fail("A sink that dies should fail the job");
+    } catch (RuntimeException ex) {
+      Assert.assertTrue(ex.getCause() instanceof StackOverflowError);
+    }
+  }
+}
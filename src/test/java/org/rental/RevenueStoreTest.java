@@ -0,0 +1,104 @@
+package org.rental;
+
+import java.io.InputStreamReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.data.Brand;
+import org.data.BulkLoader;
+import org.data.HolidayCalendar;
+import org.data.ToolAvailability;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RevenueStoreTest {
+
+  private final RevenueStore store = new RevenueStore.Builder()
+      // Monday March 3rd 2031 and the days after it.
+      .add("Ladder", Brand.WERNER, LocalDate.of(2031, 3, 3), 5, 10, 100, 900)
+      .add("Chainsaw", Brand.STIHL, LocalDate.of(2031, 3, 9), 3, 0, 0, 447)
+      .add("Ladder", Brand.WERNER, LocalDate.of(2031, 3, 10), 2, 0, 0, 398)
+      .add("Jackhammer", Brand.RIDGID, LocalDate.of(2031, 3, 12), 4, 50, 598, 598)
+      .add("Jackhammer", Brand.DEWALT, LocalDate.of(2031, 2, 28), 1, 0, 0, 299)
+      .build();
+
+  @Test
+  public void testRevenueByToolType() {
+    List<RevenueStore.Revenue> revenue = store.revenue(LocalDate.of(2031, 3, 1),
+        LocalDate.of(2031, 4, 1), null, null, RevenueStore.GroupBy.TOOL_TYPE);
+
+    Assert.assertEquals(3, revenue.size());
+    Assert.assertEquals("Chainsaw", revenue.get(0).getToolType());
+    Assert.assertEquals("Jackhammer", revenue.get(1).getToolType());
+    Assert.assertEquals(598, revenue.get(1).getTotalCents());
+    Assert.assertEquals("Ladder", revenue.get(2).getToolType());
+    Assert.assertEquals(2, revenue.get(2).getRentals());
+    Assert.assertEquals(7, revenue.get(2).getChargeDays());
+    Assert.assertEquals(1298, revenue.get(2).getTotalCents());
+    Assert.assertNull(revenue.get(2).getBrand());
+    Assert.assertNull(revenue.get(2).getWeek());
+  }
+
+  @Test
+  public void testFilteredRevenueByWeek() {
+    List<RevenueStore.Revenue> revenue = store.revenue(LocalDate.of(2031, 2, 1),
+        LocalDate.of(2031, 3, 13), "Jackhammer", null, RevenueStore.GroupBy.BRAND,
+        RevenueStore.GroupBy.WEEK);
+
+    Assert.assertEquals(2, revenue.size());
+    Assert.assertEquals(Brand.DEWALT, revenue.get(0).getBrand());
+    Assert.assertEquals(LocalDate.of(2031, 2, 24), revenue.get(0).getWeek());
+    Assert.assertEquals(Brand.RIDGID, revenue.get(1).getBrand());
+    Assert.assertEquals(LocalDate.of(2031, 3, 10), revenue.get(1).getWeek());
+    Assert.assertEquals(598, revenue.get(1).getDiscountCents());
+
+    List<RevenueStore.Revenue> werner = store.revenue(LocalDate.of(2031, 3, 1),
+        LocalDate.of(2031, 3, 17), null, Brand.WERNER, RevenueStore.GroupBy.WEEK);
+    Assert.assertEquals(2, werner.size());
+    Assert.assertEquals(900, werner.get(0).getTotalCents());
+    Assert.assertEquals(LocalDate.of(2031, 3, 3), werner.get(0).getWeek());
+
+    Assert.assertEquals(1, store.revenue(LocalDate.of(2031, 3, 3), LocalDate.of(2031, 3, 4),
+        null, null).size());
+    Assert.assertTrue(store.revenue(LocalDate.of(2031, 3, 4), LocalDate.of(2031, 3, 4), null,
+        null).isEmpty());
+    Assert.assertEquals(15.0, store.averageDiscountPercent(LocalDate.of(2031, 3, 1),
+        LocalDate.of(2031, 4, 1)), 0.001);
+  }
+
+  @Test
+  public void testLoadFromStoredRentals() throws Exception {
+    for (String[] file : new String[][] {{"CHARGES", "charges-test-data.txt"},
+        {"TOOLS", "tool-test-data.txt"}, {"HOLIDAYS", "holiday-test-data.txt"},
+        {"RENTALS", "rental-test-data.txt"}}) {
+      new BulkLoader().load(BulkLoader.Kind.fromString(file[0]), new InputStreamReader(
+          getClass().getClassLoader().getResourceAsStream(file[1])), file[1]);
+    }
+
+    try {
+      List<RepricingJob.Repriced> repriced = new ArrayList<>();
+      RepricingJob.Result result = new RepricingJob().run(repriced::addAll, null);
+      RevenueStore loaded = RevenueStore.load();
+      List<RevenueStore.Revenue> total = loaded.revenue(LocalDate.of(1900, 1, 1),
+          LocalDate.of(2100, 1, 1), null, null);
+
+      Assert.assertEquals(result.getRows(), loaded.size());
+      Assert.assertEquals(result.getRows(), total.get(0).getRentals());
+      Assert.assertEquals(result.getTotalCents(), total.get(0).getTotalCents());
+    } finally {
+      HibernateUtil.inTransaction(session -> {
+        session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+        session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+        session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+        session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+        return null;
+      });
+      ToolCatalog.reload();
+      HolidayCalendar.getDefault().invalidate();
+      ToolAvailability.getDefault().rebuild();
+      HibernateUtil.closeSession();
+    }
+  }
+}
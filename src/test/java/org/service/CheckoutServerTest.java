@@ -0,0 +1,130 @@
+package org.service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.data.BulkLoader;
+import org.data.ToolAvailability;
+import org.data.ToolCatalog;
+import org.hibernate.HibernateUtil;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CheckoutServerTest {
+
+  private static CheckoutServer server;
+  private static HttpClient client;
+
+  @BeforeClass
+  public static void setUp() throws IOException {
+    BulkLoader loader = new BulkLoader();
+    load(loader, BulkLoader.Kind.CHARGES, "charges-test-data.txt");
+    load(loader, BulkLoader.Kind.TOOLS, "tool-test-data.txt");
+    load(loader, BulkLoader.Kind.HOLIDAYS, "holiday-test-data.txt");
+
+    server = new CheckoutServer(new InetSocketAddress("localhost", 0));
+    server.start();
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    server.stop(0);
+    HibernateUtil.inTransaction(session -> {
+      session.createMutationQuery("DELETE FROM Rental").executeUpdate();
+      session.createMutationQuery("DELETE FROM Tool").executeUpdate();
+      session.createMutationQuery("DELETE FROM Charges").executeUpdate();
+      session.createMutationQuery("DELETE FROM Holiday").executeUpdate();
+      return null;
+    });
+    ToolCatalog.reload();
+    ToolAvailability.getDefault().rebuild();
+  }
+
+  private static void load(BulkLoader loader, BulkLoader.Kind kind, String resource)
+      throws IOException {
+    loader.load(kind, new InputStreamReader(
+        CheckoutServerTest.class.getClassLoader().getResourceAsStream(resource)), resource);
+  }
+
+  private static HttpResponse<String> post(String form) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getPort() + "/checkout"))
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(form))
+        .build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpResponse<String> get(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + server.getPort() + path)).GET().build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  @Test
+  public void testCheckoutAndRetrieveAgreement() throws Exception {
+    HttpResponse<String> created = post("toolCode=LADW&days=3&discount=10&checkoutDate=2020-07-02");
+
+    Assert.assertEquals(201, created.statusCode());
+    Assert.assertTrue(created.body().contains("\"toolCode\":\"LADW\""));
+    Assert.assertTrue(created.body().contains("\"dueDate\":\"2020-07-05\""));
+    Assert.assertTrue(created.body().contains("\"chargeDays\":2"));
+    Assert.assertTrue(created.body().contains("\"finalCharge\":3.58"));
+
+    String location = created.headers().firstValue("Location").orElseThrow();
+    HttpResponse<String> fetched = get(location);
+
+    Assert.assertEquals(200, fetched.statusCode());
+    Assert.assertEquals(created.body(), fetched.body());
+  }
+
+  @Test
+  public void testOverlappingCheckoutIsRejected() throws Exception {
+    Assert.assertEquals(201, post("toolCode=CHNS&days=5&discount=0&checkoutDate=2031-07-02")
+        .statusCode());
+
+    HttpResponse<String> overlapping = post(
+        "toolCode=CHNS&days=2&discount=0&checkoutDate=2031-07-06");
+    Assert.assertEquals(400, overlapping.statusCode());
+    Assert.assertTrue(overlapping.body().contains("Tool CHNS is already checked out"));
+    Assert.assertEquals(201, post("toolCode=CHNS&days=2&discount=0&checkoutDate=2031-07-07")
+        .statusCode());
+  }
+
+  @Test
+  public void testInvalidCheckoutIsRejected() throws Exception {
+    HttpResponse<String> response = post("toolCode=JAKD&days=5&discount=101&checkoutDate=2015-09-03");
+
+    Assert.assertEquals(400, response.statusCode());
+    Assert.assertTrue(response.body().contains("\"error\":\"Discount percentage is: 101."));
+  }
+
+  @Test
+  public void testUnknownToolAndAgreement() throws Exception {
+    Assert.assertEquals(404, post("toolCode=NOPE&days=5&checkoutDate=2015-09-03").statusCode());
+    Assert.assertEquals(404, get("/agreements/999999").statusCode());
+  }
+
+  @Test
+  public void testQuoteMatchesCheckoutWithoutTheDatabase() throws Exception {
+    String form = "toolCode=JAKD&days=6&discount=0&checkoutDate=2015-09-03";
+    String created = post(form).body();
+
+    long statements = HibernateUtil.getStatistics().getPrepareStatementCount();
+    HttpResponse<String> quote = get("/quote?" + form);
+
+    Assert.assertEquals(200, quote.statusCode());
+    Assert.assertEquals(statements, HibernateUtil.getStatistics().getPrepareStatementCount());
+    Assert.assertEquals(created.substring(created.indexOf(",\"toolCode\"") + 1),
+        quote.body().substring(1));
+    Assert.assertEquals(404, get("/quote?toolCode=NOPE&days=5&checkoutDate=2015-09-03")
+        .statusCode());
+  }
+}